@@ -3,6 +3,7 @@ plugins {
     id("application")
     id("org.javamodularity.moduleplugin").version("1.8.12")
     id("org.openjfx.javafxplugin").version("0.0.14")
+    id("me.champeau.jmh").version("0.7.2")
 }
 
 group = "com.hedera.consim"
@@ -26,6 +27,19 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// Benchmarks for the throttle hot paths, run with "./gradlew jmh". Benchmarks can be filtered with
+// -Pjmh.includes=<regex>, results are written to build/results/jmh.
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // report allocation rate per operation alongside throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    (project.findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
+
 javafx {
     version = "23.0.1"
     modules = listOf("javafx.controls", "javafx.fxml", "javafx.web", "javafx.swing")
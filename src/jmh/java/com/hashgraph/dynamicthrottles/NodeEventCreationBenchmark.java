@@ -0,0 +1,60 @@
+package com.hashgraph.dynamicthrottles;
+
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.simulated.DiscreteEventSimulator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Node event creation, draining the incoming transaction queue into an event. The node runs on a virtual time scheduler
+ * that is never advanced, so only the benchmark threads touch it. In the package of Node to call
+ * createAndGossipEvent() directly.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NodeEventCreationBenchmark {
+    private static final Transaction TRANSACTION = new Transaction(Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS);
+    private Node node;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        node = new Node(1, SimulationConfig.DEFAULT, new DiscreteEventSimulator(), blackhole::consume);
+    }
+
+    /** Fill a full event's worth of transactions then drain them into an event on one thread */
+    @Benchmark
+    @Group("singleThreaded")
+    @GroupThreads(1)
+    public void fillAndDrain() {
+        for (int i = 0; i < Node.MAX_TRANSACTIONS_PER_EVENT; i++) {
+            node.incomingTransactionQueue.offer(TRANSACTION);
+        }
+        node.createAndGossipEvent();
+    }
+
+    /** Intake threads adding transactions, offers fail while the bounded queue is full */
+    @Benchmark
+    @Group("multiThreaded")
+    @GroupThreads(3)
+    public boolean produce() {
+        return node.incomingTransactionQueue.offer(TRANSACTION);
+    }
+
+    /** The event creation thread draining the queue concurrently with intake */
+    @Benchmark
+    @Group("multiThreaded")
+    @GroupThreads(1)
+    public void drain() {
+        node.createAndGossipEvent();
+    }
+}
@@ -0,0 +1,61 @@
+package com.hashgraph.dynamicthrottles.bench;
+
+import com.hashgraph.dynamicthrottles.impl.AdaptivePIDRateController;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * PID controller update, called once per round per node with the quorum health. The controller runs on a fake clock
+ * that moves on a round interval each update, as back to back updates on the system clock would see no time pass and
+ * only measure the no elapsed time early return.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdaptivePIDRateControllerBenchmark {
+    private static final double TARGET_HEALTH = 0.8;
+    /** Time between rounds */
+    private static final long ROUND_INTERVAL_NANOS = 50_000_000;
+    private AdaptivePIDRateController controller;
+    private final double[] healths = new double[1024];
+    private int nextHealth = 0;
+    private long nowNanos = 0;
+
+    @Setup
+    public void setup() {
+        final Clock roundClock = new Clock() {
+            @Override
+            public long nanoTime() {
+                nowNanos += ROUND_INTERVAL_NANOS;
+                return nowNanos;
+            }
+
+            @Override
+            public long currentTimeMillis() {
+                return nowNanos / 1_000_000;
+            }
+        };
+        controller = new AdaptivePIDRateController(roundClock);
+        final Random random = new Random(1234);
+        for (int i = 0; i < healths.length; i++) {
+            healths[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double update() {
+        final double health = healths[nextHealth];
+        nextHealth = (nextHealth + 1) & (healths.length - 1);
+        return controller.update(TARGET_HEALTH, health);
+    }
+}
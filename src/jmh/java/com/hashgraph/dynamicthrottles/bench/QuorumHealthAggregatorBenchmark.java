@@ -0,0 +1,85 @@
+package com.hashgraph.dynamicthrottles.bench;
+
+import com.hashgraph.dynamicthrottles.impl.QuorumHealthAggregator;
+import com.hashgraph.dynamicthrottles.impl.RoundSummarizer;
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.RoundSummary;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Quorum health computation per round, over the round sizes Consensus produces (50 to 400 events) and network sizes.
+ * Summarizing a round, which scans its events, runs once per round on the consensus path. Each node then runs
+ * computeQuorumHealth once per round on the summary, so the multithreaded variant models several nodes at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuorumHealthAggregatorBenchmark {
+    @Param({"50", "100", "200", "400"})
+    public int eventsPerRound;
+
+    @Param({"5", "30"})
+    public int numOfNodes;
+
+    private QuorumHealthAggregator aggregator;
+    private RoundSummarizer summarizer;
+    private Round[] rounds;
+    private int nextRound = 0;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(1234);
+        aggregator = new QuorumHealthAggregator(1);
+        summarizer = new RoundSummarizer();
+        // a few different rounds so health values vary between calls
+        rounds = new Round[16];
+        for (int r = 0; r < rounds.length; r++) {
+            final List<PostConsensusEvent> events = new ArrayList<>(eventsPerRound);
+            for (int e = 0; e < eventsPerRound; e++) {
+                final Event event = new Event(random.nextInt(1, numOfNodes + 1), random.nextInt(0, 101),
+                        List.of(new Transaction(Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS)));
+                events.add(new PostConsensusEvent(event, e));
+            }
+            rounds[r] = new Round(r + 1, events, r, summarizer.summarize(events));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RoundSummary summarizeRound() {
+        final Round round = rounds[nextRound];
+        nextRound = (nextRound + 1) & (rounds.length - 1);
+        return summarizer.summarize(round.events());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double computeQuorumHealth() {
+        final Round round = rounds[nextRound];
+        nextRound = (nextRound + 1) & (rounds.length - 1);
+        return aggregator.computeQuorumHealth(round);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double computeQuorumHealth4Threads() {
+        final Round round = rounds[nextRound];
+        nextRound = (nextRound + 1) & (rounds.length - 1);
+        return aggregator.computeQuorumHealth(round);
+    }
+}
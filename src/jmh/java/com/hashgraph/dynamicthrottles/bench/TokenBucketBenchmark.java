@@ -0,0 +1,103 @@
+package com.hashgraph.dynamicthrottles.bench;
+
+import com.hashgraph.dynamicthrottles.impl.AdaptiveTokenBucket;
+import com.hashgraph.dynamicthrottles.impl.ElasticTokenBucket;
+import com.hashgraph.dynamicthrottles.impl.LockFreeTokenBucket;
+import com.hashgraph.dynamicthrottles.impl.TokenBucket;
+import com.hashgraph.dynamicthrottles.impl.TokenBucketType;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Token bucket intake hot path. The tryAcquire benchmarks at 1, 2, 4 and 8 threads show how acquire throughput scales
+ * with intake threads for each {@link TokenBucketType}. The refill rate is set so the bucket both accepts and rejects,
+ * as it does under real load. The "contended" group adds a thread calling setRefillRate() like the round handler does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenBucketBenchmark {
+    @Param({"SYNCHRONIZED", "LOCK_FREE"})
+    public TokenBucketType bucketType;
+
+    private TokenBucket bucket;
+    private ElasticTokenBucket elasticBucket;
+    private double rate = 1e5;
+
+    @Setup
+    public void setup() {
+        bucket = switch (bucketType) {
+            case SYNCHRONIZED -> new AdaptiveTokenBucket(15_000, 1e6, Clock.SYSTEM);
+            case LOCK_FREE -> new LockFreeTokenBucket(15_000, 1e6, Clock.SYSTEM);
+        };
+        elasticBucket = new ElasticTokenBucket(15_000, 1e6, Clock.SYSTEM);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean tryAcquire1Thread() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean tryAcquire2Threads() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean tryAcquire4Threads() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean tryAcquire8Threads() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int acquireUpTo100() {
+        return bucket.acquireUpTo(100);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public boolean contendedTryAcquire() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedSetRefillRate() {
+        rate = rate >= 1e7 ? 1e5 : rate + 1e5;
+        bucket.setRefillRate(rate);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean elasticTryConsume1Thread() {
+        return elasticBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean elasticTryConsume4Threads() {
+        return elasticBucket.tryConsume(1);
+    }
+}
@@ -2,89 +2,219 @@ package com.hashgraph.dynamicthrottles;
 
 import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
 
-import com.hashgraph.dynamicthrottles.model.Event;
-import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
-import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.metrics.TimeSeriesRecorder;
+import com.hashgraph.dynamicthrottles.metrics.TransactionLatencies;
 import com.hashgraph.dynamicthrottles.model.Transaction;
-import com.hashgraph.dynamicthrottles.simulated.Consensus;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import com.hashgraph.dynamicthrottles.replay.ReplayDriver;
+import com.hashgraph.dynamicthrottles.replay.ReplayReader;
+import com.hashgraph.dynamicthrottles.replay.ReplayRecorder;
+import com.hashgraph.dynamicthrottles.simulated.DiscreteEventSimulator;
+import com.hashgraph.dynamicthrottles.time.RealTimeScheduler;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import com.hashgraph.dynamicthrottles.time.ThreadModel;
+import com.hashgraph.dynamicthrottles.time.WorkSimulatorCalibration;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 @SuppressWarnings({"StringConcatenationInsideStringBufferAppend", "DuplicatedCode"})
 public class DynamicMain {
-    public static final int NUM_OF_NODES = 5;
-    public static final List<Node> nodes = IntStream.range(1, NUM_OF_NODES+1)
-            .mapToObj(Node::new)
-            .collect(Collectors.toList());
-    public static final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1);
-    public static final Consensus consensus = new Consensus(DynamicMain::handleNewRound, NUM_OF_NODES);
-    public static final LoadGenerator loadGenerator = new LoadGenerator();
-    // gather metrics
-    public static final AtomicLong roundsInLastSecond = new AtomicLong(0);
-    public static final AtomicLong eventsInLastSecond = new AtomicLong(0);
-    public static final AtomicLong transactionsInLastSecond = new AtomicLong(0);
-    public static final AtomicLong transactionWorkNsInLastSecond = new AtomicLong(0);
+    /**
+     * System property to run the command line simulation in virtual time, its value is the number of simulated seconds
+     * to run for. When not set the simulation runs in real time.
+     */
+    public static final String VIRTUAL_TIME_SECONDS_PROPERTY = "dynamicthrottles.virtualTimeSeconds";
+    private static final long VIRTUAL_TIME_SECONDS = Long.getLong(VIRTUAL_TIME_SECONDS_PROPERTY, 0);
+    /** System property selecting the real time thread model, PLATFORM or VIRTUAL, default PLATFORM */
+    public static final String THREAD_MODEL_PROPERTY = "dynamicthrottles.threadModel";
+    /**
+     * System property naming a file to record a time series of every node's gauges to, see
+     * {@link TimeSeriesRecorder}. Not recorded when not set.
+     */
+    public static final String TIME_SERIES_FILE_PROPERTY = "dynamicthrottles.timeSeriesFile";
+    /** System property for the time series sample interval in milliseconds, 0 samples once per round, default 10 */
+    public static final String TIME_SERIES_INTERVAL_MILLIS_PROPERTY = "dynamicthrottles.timeSeriesIntervalMillis";
+    /** System property naming a file to record every submitted transaction and round to, for replay */
+    public static final String RECORD_FILE_PROPERTY = "dynamicthrottles.recordFile";
+    /**
+     * System property naming a recorded run to replay instead of generating load and forming rounds, see
+     * {@link ReplayDriver}
+     */
+    public static final String REPLAY_FILE_PROPERTY = "dynamicthrottles.replayFile";
+    /**
+     * Prefix for system properties overriding any simulation parameter by name, for example
+     * -Ddynamicthrottles.numOfNodes=200
+     */
+    public static final String CONFIG_PROPERTY_PREFIX = "dynamicthrottles.";
+    /** The simulation settings, the defaults with any system property overrides */
+    private static final SimulationConfig config = SimulationConfig.DEFAULT.withSystemProperties(CONFIG_PROPERTY_PREFIX);
+    /** Scheduler driving the simulation, one thread per node plus one for metrics in real time */
+    private static final Scheduler scheduler = VIRTUAL_TIME_SECONDS > 0
+            ? new DiscreteEventSimulator()
+            : new RealTimeScheduler(config.numOfNodes() + 1,
+                    ThreadModel.valueOf(System.getProperty(THREAD_MODEL_PROPERTY, "PLATFORM").toUpperCase()));
+    /** Files written during the run, closed when it ends */
+    private static final List<Closeable> outputs = new CopyOnWriteArrayList<>();
+    /** Network wide latencies over the last interval, reused for each interval */
+    private static final TransactionLatencies intervalLatencies = new TransactionLatencies();
+    /** The simulation run by the command line and UI */
+    public static final Simulation simulation = createSimulation();
 
-    /** Main for command line testing */
-    public static void main(String[] args) {
-        // start executor to print state once per second
-        executorService.scheduleAtFixedRate(() -> {
+    /**
+     * Main for command line testing, runs in real time unless the system property VIRTUAL_TIME_SECONDS_PROPERTY is set
+     * in which case it runs that many seconds of simulated time as fast as possible. For running many configurations
+     * headless see {@link com.hashgraph.dynamicthrottles.sweep.ParameterSweep}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (scheduler.isRealTime()) {
+            reportWorkSimulatorCalibration();
+        }
+        startTimeSeriesRecorder();
+        if (scheduler.isRealTime()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DynamicMain::closeOutputs));
+        }
+        // print state with each once per second metrics snapshot
+        simulation.metrics.addIntervalListener(interval -> {
             // return to start of line
             StringBuilder sb = new StringBuilder();
-            for (Node node : nodes) {
+            if (!scheduler.isRealTime()) {
+                sb.append("[t=%,ds] ".formatted(scheduler.clock().nanoTime() / NANOS_PER_SECOND));
+            }
+            for (Node node : simulation.nodes) {
                 // print the same line over and over with all nodes toStrings with "," delimiter
                 sb.append(node.toString() + ", ");
             }
             // print metrics
-            sb.append(" con queue: " + consensus.consensusQueueSize() + ", ");
-            sb.append(" accepted: %.1f%%,".formatted(loadGenerator.getAcceptedTransactionPercentageSinceLastCall()*100));
-            sb.append(" rounds: " + roundsInLastSecond.getAndSet(0) + ", ");
-            sb.append(" events: " + eventsInLastSecond.getAndSet(0) + ", ");
-            sb.append(" transactions: " + transactionsInLastSecond.getAndSet(0) + ", ");
-            sb.append(" transaction work: " + ((double)transactionWorkNsInLastSecond.getAndSet(0)/NANOS_PER_SECOND)+" seconds");
+            sb.append(" con queue: " + simulation.consensus.consensusQueueSize() + ", ");
+            final long accepted = interval.counter(LoadGenerator.ACCEPTED_METRIC)
+                    + interval.counter(ReplayDriver.ACCEPTED_METRIC);
+            final long rejected = interval.counter(LoadGenerator.REJECTED_METRIC)
+                    + interval.counter(ReplayDriver.TRANSACTIONS_METRIC) - interval.counter(ReplayDriver.ACCEPTED_METRIC);
+            sb.append(" accepted: %.1f%%,".formatted((double) accepted / (accepted + rejected) * 100));
+            sb.append(" rounds: " + interval.counter(Simulation.ROUNDS_METRIC) + ", ");
+            sb.append(" events: " + interval.counter(Simulation.EVENTS_METRIC) + ", ");
+            sb.append(" transactions: " + interval.counter(Simulation.TRANSACTIONS_METRIC) + ", ");
+            sb.append(" transaction work: " + ((double)interval.counter(Simulation.TRANSACTION_WORK_NANOS_METRIC)/NANOS_PER_SECOND)+" seconds");
+            intervalLatencies.reset();
+            for (Node node : simulation.nodes) {
+                intervalLatencies.add(interval, "node." + node.nodeId() + ".latency.");
+            }
+            sb.append(", latency: " + intervalLatencies);
+            if (!config.workloadProfile().isEmpty()) {
+                sb.append(", accepted by type:");
+                for (TransactionType type : TransactionType.values()) {
+                    final long typeAccepted = interval.counter(LoadGenerator.ACCEPTED_METRIC + "." + type);
+                    if (typeAccepted > 0) {
+                        sb.append(" " + type + "=" + typeAccepted);
+                    }
+                }
+            }
+            if (interval.counters().containsKey(ReplayDriver.TRANSACTIONS_METRIC)) {
+                sb.append(", replay mismatches: " + interval.counter(ReplayDriver.MISMATCHES_METRIC));
+            }
+            if (scheduler.isRealTime()) {
+                sb.append(", stages: " + simulation.consensusPipeline.getStageMetrics(interval));
+            }
             System.out.println(sb);
-        }, 0, 1, java.util.concurrent.TimeUnit.SECONDS);
+        });
         startSimulation();
+        if (scheduler instanceof DiscreteEventSimulator simulator) {
+            final long startNanos = System.nanoTime();
+            simulator.runFor(VIRTUAL_TIME_SECONDS * NANOS_PER_SECOND);
+            System.out.printf("Simulated %,d seconds in %.1f seconds%n", VIRTUAL_TIME_SECONDS,
+                    (System.nanoTime() - startNanos) / (double) NANOS_PER_SECOND);
+            closeOutputs();
+        } else {
+            // scheduler threads are daemons, so keep the JVM alive
+            while (true) {
+                LockSupport.park();
+            }
+        }
     }
 
-    public static void startSimulation() {
-        // Start load generator
-        loadGenerator.start();
+    /**
+     * Create the simulation, recording or replaying it if RECORD_FILE_PROPERTY or REPLAY_FILE_PROPERTY are set. This
+     * is done as soon as it is created, nodes start creating events straight away in real time.
+     */
+    private static Simulation createSimulation() {
+        final Simulation simulation = new Simulation(config, scheduler);
+        try {
+            final String recordFile = System.getProperty(RECORD_FILE_PROPERTY);
+            if (recordFile != null) {
+                final ReplayRecorder recorder = new ReplayRecorder(Path.of(recordFile), config.numOfNodes(),
+                        scheduler.clock());
+                simulation.recordTo(recorder);
+                outputs.add(recorder);
+                System.out.println("Recording run to " + recordFile);
+            }
+            final String replayFile = System.getProperty(REPLAY_FILE_PROPERTY);
+            if (replayFile != null) {
+                simulation.replayFrom(new ReplayReader(Path.of(replayFile)));
+                System.out.println("Replaying run from " + replayFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return simulation;
     }
 
     /**
-     * Called by consensus when it has a created a new round to process.
-     *
-     * @param round the round to process
+     * Close every file written during the run, called at the end of a virtual time run or at shutdown in real time.
      */
-    private static void handleNewRound(Round round) {
-        // compute a bunch of metrics for debugging
-        roundsInLastSecond.incrementAndGet();
-        for (PostConsensusEvent event : round.events()) {
-            eventsInLastSecond.incrementAndGet();
-            // add the work of all transactions in the event
-            for (Transaction transaction : event.event().transactions()) {
-                transactionsInLastSecond.incrementAndGet();
-                transactionWorkNsInLastSecond.addAndGet(transaction.amountOfWorkInNanos());
+    private static void closeOutputs() {
+        for (Closeable output : outputs) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                System.err.println("Failed to write output: " + e.getMessage());
             }
         }
-        // send the round to all nodes
-        for (Node node : nodes) {
-            node.roundReachedConsensus(round);
+    }
+
+    /**
+     * Start recording a time series if TIME_SERIES_FILE_PROPERTY is set.
+     */
+    private static void startTimeSeriesRecorder() throws IOException {
+        final String file = System.getProperty(TIME_SERIES_FILE_PROPERTY);
+        if (file == null) {
+            return;
+        }
+        final TimeSeriesRecorder recorder = new TimeSeriesRecorder(simulation.metrics, scheduler.clock(), Path.of(file));
+        final long intervalMillis = Long.getLong(TIME_SERIES_INTERVAL_MILLIS_PROPERTY, 10);
+        if (intervalMillis > 0) {
+            recorder.start(scheduler, intervalMillis * 1_000_000);
+        } else {
+            simulation.addRoundListener(round -> recorder.sample());
         }
+        outputs.add(recorder);
+        System.out.println("Recording time series of %d gauges to %s".formatted(
+                simulation.metrics.gauges().size(), file));
     }
 
     /**
-     * Called by a node when it has a event to gossip to the other nodes.
-     *
-     * @param event the event to gossip
+     * Measure and print how accurately each work simulation mode takes the requested time on this machine, so the
+     * error in real time execution of the chosen mode is known.
      */
-    public static void gossip(Event event) {
-        // send event to consensus
-        consensus.addEvent(event);
+    private static void reportWorkSimulatorCalibration() {
+        System.out.println("Work simulator timing error over transaction work of %d-%dus, using %s:".formatted(
+                Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS / 1000, Transaction.MAX_AMOUNT_OF_WORK_IN_NANOS / 1000,
+                config.workSimulator()));
+        for (WorkSimulatorCalibration.Result result : WorkSimulatorCalibration.measureAll(200,
+                Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS, Transaction.MAX_AMOUNT_OF_WORK_IN_NANOS)) {
+            System.out.println("    " + result);
+        }
+    }
+
+    /**
+     * Start the simulation and its once per second metrics snapshots, shared by the command line and the UI.
+     */
+    public static void startSimulation() {
+        simulation.metrics.startIntervalSnapshots(scheduler, NANOS_PER_SECOND);
+        simulation.start();
     }
-}
\ No newline at end of file
+}
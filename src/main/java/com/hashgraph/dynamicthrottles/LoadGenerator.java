@@ -2,82 +2,171 @@ package com.hashgraph.dynamicthrottles;
 
 import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
 
+import com.hashgraph.dynamicthrottles.load.ClosedLoopLoadGenerator;
+import com.hashgraph.dynamicthrottles.load.OpenLoopLoadGenerator;
+import com.hashgraph.dynamicthrottles.load.WorkloadProfile;
+import com.hashgraph.dynamicthrottles.metrics.Counter;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
 import com.hashgraph.dynamicthrottles.model.Transaction;
-import java.lang.System.Logger;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.LockSupport;
 
 /**
- * This class is responsible for generating load on the nodes by creating transactions and sending them to the nodes. It
- * runs in a separate thread and continuously generates transactions until the program is terminated. Sending them as
- * fast as the nodes can accept them. The transaction work amount is random, but it is capped at 250 ms.
+ * Generates load on the nodes by creating transactions and sending them to random nodes, until the program is
+ * terminated. The load model, closed loop or open loop, is chosen by {@link SimulationConfig#loadModel()}. With a
+ * {@link WorkloadProfile} transactions are typed and their work drawn from each type's distribution, otherwise they are
+ * untyped with random work scaled by percentageLargeTransactions.
  */
-public class LoadGenerator {
-    private static final Random RANDOM = new Random(3518465419866731650L);
-    private final Logger logger = System.getLogger(LoadGenerator.class.getName());
-    private final AtomicLong acceptedTransactions = new AtomicLong(0);
-    private final AtomicLong rejectedTransactions = new AtomicLong(0);
-    private final AtomicLong transactions = new AtomicLong(0);
-    /** The percentage of large transactions (under 15K TPS) in 0 to 100 */
+public abstract class LoadGenerator {
+    /** Delay before starting to generate load */
+    protected static final long START_DELAY_NANOS = NANOS_PER_SECOND * 5L;
+    /** Metric names of the accepted, rejected and created transaction counters */
+    public static final String ACCEPTED_METRIC = "loadGenerator.accepted";
+    public static final String REJECTED_METRIC = "loadGenerator.rejected";
+    public static final String TRANSACTIONS_METRIC = "loadGenerator.transactions";
+    /** Transactions accepted by a node */
+    public final Counter acceptedTransactions = new Counter();
+    /** Submissions rejected by a node, a transaction retried until accepted counts once per rejection */
+    public final Counter rejectedTransactions = new Counter();
+    /** Transactions created */
+    public final Counter transactions = new Counter();
+    /** Transactions created of each type, indexed by type code, named TRANSACTIONS_METRIC.&lt;type&gt; */
+    public final Counter[] transactionsByType = newTypeCounters();
+    /** Transactions accepted of each type, indexed by type code, named ACCEPTED_METRIC.&lt;type&gt; */
+    public final Counter[] acceptedByType = newTypeCounters();
+    /** The percentage of large transactions (under 15K TPS) in 0 to 100, without a workload profile */
     public final AtomicInteger percentageLargeTransactions = new AtomicInteger(0);
+    protected final Scheduler scheduler;
+    protected final List<Node> nodes;
+    protected final int conflictKeySpace;
+    /** The typed workload, null for the legacy uniform workload */
+    protected final WorkloadProfile workloadProfile;
+    /** The time load starts, the origin of the workload profile's mix timeline */
+    protected volatile long loadStartNanos;
 
+    /**
+     * Create a load generator, it does not send anything until start() is called.
+     *
+     * @param scheduler the scheduler to generate load on
+     * @param nodes the nodes to send transactions to
+     * @param conflictKeySpace the number of distinct conflict keys to spread transactions over
+     * @param workloadProfile the typed workload, null for the legacy uniform workload
+     */
+    protected LoadGenerator(Scheduler scheduler, List<Node> nodes, int conflictKeySpace,
+            WorkloadProfile workloadProfile) {
+        this.scheduler = scheduler;
+        this.nodes = nodes;
+        this.conflictKeySpace = conflictKeySpace;
+        this.workloadProfile = workloadProfile;
+    }
+
+    /**
+     * Create the load generator selected by a simulation config.
+     *
+     * @param config the simulation settings
+     * @param scheduler the scheduler to generate load on
+     * @param nodes the nodes to send transactions to
+     * @return the new load generator
+     * @throws UncheckedIOException if the workload profile file can not be read
+     */
+    public static LoadGenerator create(SimulationConfig config, Scheduler scheduler, List<Node> nodes) {
+        final WorkloadProfile workloadProfile;
+        try {
+            workloadProfile = WorkloadProfile.create(config.workloadProfile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return switch (config.loadModel()) {
+            case CLOSED_LOOP -> new ClosedLoopLoadGenerator(scheduler, nodes, config.seed(), config.conflictKeySpace(),
+                    workloadProfile);
+            case OPEN_LOOP -> new OpenLoopLoadGenerator(config, scheduler, nodes, workloadProfile);
+        };
+    }
+
+    /**
+     * Add the load generator's counters to a registry.
+     *
+     * @param registry the registry to add to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.register(ACCEPTED_METRIC, acceptedTransactions);
+        registry.register(REJECTED_METRIC, rejectedTransactions);
+        registry.register(TRANSACTIONS_METRIC, transactions);
+        for (TransactionType type : TransactionType.values()) {
+            registry.register(TRANSACTIONS_METRIC + "." + type, transactionsByType[type.code()]);
+            registry.register(ACCEPTED_METRIC + "." + type, acceptedByType[type.code()]);
+        }
+    }
+
+    /**
+     * Start generating load after START_DELAY_NANOS.
+     */
     public void start() {
-        Thread loadGeneratorThread = new Thread(() -> {
-            // wait 5 seconds before starting to generate load
-            LockSupport.parkNanos(NANOS_PER_SECOND * 5L);
-            while (true) {
-//                LockSupport.parkNanos(1_000_000 / 100); // TODO temp slow down
-                // pick a random node
-                final int randomExtraWork = RANDOM.nextInt(0,
-                        Transaction.MAX_AMOUNT_OF_WORK_IN_NANOS-Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS);
-                final int transactionWork = Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS +
-                        (int)(randomExtraWork * percentageLargeTransactions.get() / 100d);
-                final Transaction transaction = new Transaction(transactionWork);
-                transactions.incrementAndGet();
-                // pick a random node and try to send the transaction
-                Node node = DynamicMain.nodes.get(RANDOM.nextInt(0, DynamicMain.NUM_OF_NODES));
-                boolean accepted = node.acceptTransaction(transaction);
-                if (!accepted) {
-                    rejectedTransactions.incrementAndGet();
-                }
-                // if the node is busy, wait a bit and picking another random node
-                while (!accepted) {
-                    // if the node is busy, wait a bit and try again
-                    LockSupport.parkNanos(NANOS_PER_SECOND);
-                    // pick another random node
-                    node = DynamicMain.nodes.get(RANDOM.nextInt(0, DynamicMain.NUM_OF_NODES));
-                    // try again
-                    accepted = node.acceptTransaction(transaction);
-                    if (!accepted) {
-                        rejectedTransactions.incrementAndGet();
-                    }
-                }
-                // track accepted and rejected transactions metrics
-                acceptedTransactions.incrementAndGet();
-            }
-        });
-        loadGeneratorThread.setUncaughtExceptionHandler((t, e) ->
-                logger.log(Logger.Level.ERROR, "Load generator thread interrupted: " + e.getMessage(), e));
-        loadGeneratorThread.setDaemon(true);
-        loadGeneratorThread.start();
+        loadStartNanos = scheduler.clock().nanoTime() + START_DELAY_NANOS;
+        startGenerating(loadStartNanos);
     }
 
-    public double getAcceptedTransactionPercentageSinceLastCall() {
-        long accepted = acceptedTransactions.getAndSet(0);
-        long rejected = rejectedTransactions.getAndSet(0);
-        return (double) accepted / (accepted + rejected);
+    /**
+     * Start the load model's clients.
+     *
+     * @param startNanos the time to send the first transaction at
+     */
+    protected abstract void startGenerating(long startNanos);
+
+    /**
+     * Create a new transaction with a random conflict key, typed from the workload profile if there is one, otherwise
+     * untyped with random work scaled by percentageLargeTransactions.
+     *
+     * @param random the random for the work
+     * @param keyRandom the random for the conflict key
+     * @return the new transaction
+     */
+    protected Transaction createTransaction(Random random, Random keyRandom) {
+        final Transaction transaction;
+        if (workloadProfile != null) {
+            transaction = workloadProfile.createTransaction(scheduler.clock().nanoTime() - loadStartNanos, random,
+                    keyRandom.nextInt(1, conflictKeySpace + 1));
+        } else {
+            final int randomExtraWork = random.nextInt(0,
+                    Transaction.MAX_AMOUNT_OF_WORK_IN_NANOS-Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS);
+            final int transactionWork = Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS +
+                    (int)(randomExtraWork * percentageLargeTransactions.get() / 100d);
+            transaction = new Transaction(transactionWork, keyRandom.nextInt(1, conflictKeySpace + 1));
+        }
+        transactions.increment();
+        transactionsByType[transaction.type().code()].increment();
+        return transaction;
     }
 
-    public long[] getAcceptedRejectedSinceLastCall() {
-        return new long[]{
-                acceptedTransactions.getAndSet(0),
-                rejectedTransactions.getAndSet(0)
-        };
+    /**
+     * Pick a random node and try to send it the transaction, counting acceptance and rejections.
+     *
+     * @param random the random to pick the node with
+     * @param transaction the transaction to send
+     * @return true if the transaction was accepted
+     */
+    protected boolean sendToRandomNode(Random random, Transaction transaction) {
+        final Node node = nodes.get(random.nextInt(0, nodes.size()));
+        final boolean accepted = node.acceptTransaction(transaction);
+        if (accepted) {
+            acceptedTransactions.increment();
+            acceptedByType[transaction.type().code()].increment();
+        } else {
+            rejectedTransactions.increment();
+        }
+        return accepted;
     }
 
-    public long getTransactionsSinceLastCall() {
-        return transactions.getAndSet(0);
+    private static Counter[] newTypeCounters() {
+        final Counter[] counters = new Counter[TransactionType.count()];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counter();
+        }
+        return counters;
     }
 }
@@ -1,75 +1,229 @@
 package com.hashgraph.dynamicthrottles;
 
+import com.hashgraph.dynamicthrottles.concurrent.TransactionRingBuffer;
+import com.hashgraph.dynamicthrottles.estimate.ExecutionCostEstimator;
 import com.hashgraph.dynamicthrottles.impl.GlobalIntakeController;
+import com.hashgraph.dynamicthrottles.metrics.Counter;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.metrics.TransactionLatencies;
 import com.hashgraph.dynamicthrottles.model.Event;
 import com.hashgraph.dynamicthrottles.model.Round;
 import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import com.hashgraph.dynamicthrottles.simulated.ParallelRoundExecutor;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import com.hashgraph.dynamicthrottles.time.WorkSimulator;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 @SuppressWarnings("FieldCanBeLocal")
-public class Node {
+public final class Node {
     public static final int MAX_TRANSACTIONS_QUEUE_SIZE = 500;
     public static final int MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY = 20;
     public static final int NANOS_PER_SECOND = 1_000_000_000;
     public static final int MAX_TRANSACTIONS_PER_EVENT = 100;
-    public static final int EVENTS_PER_SECOND = 500/ DynamicMain.NUM_OF_NODES;
+    /** Events created per second across the whole network, shared evenly between the nodes */
+    public static final int NETWORK_EVENTS_PER_SECOND = 500;
     private final Logger logger = System.getLogger(Node.class.getName());
     private final int nodeId;
-    public final ConcurrentLinkedDeque<Transaction> incomingTransactionQueue = new ConcurrentLinkedDeque<>();
+    /** Bounded queue of accepted transactions waiting to go into an event, intake is rejected while it is full */
+    public final TransactionRingBuffer incomingTransactionQueue;
     public final ConcurrentLinkedDeque<Round> roundsToExecuteQueue = new ConcurrentLinkedDeque<>();
-    private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1, r -> {
-        Thread thread = new Thread(r);
-        thread.setDaemon(true);
-        return thread;
-    });
+    /** Total work of the rounds in roundsToExecuteQueue, so the throttle need not walk the queue */
+    private final AtomicLong roundsToExecuteWorkNanos = new AtomicLong(0);
+    private final Scheduler scheduler;
+    private final Consumer<Event> gossip;
+    /** True while a round is being executed in virtual time, only used by the simulation thread */
+    private boolean executingInVirtualTime = false;
+    /** The thread executing rounds in real time, unparked when a round arrives, null in virtual time */
+    private final Thread executionThread;
+    /** How execution takes up time in real time */
+    private final WorkSimulator workSimulator;
+    /** Executes rounds on a pool of threads when configured with more than one execution thread, else null */
+    private final ParallelRoundExecutor parallelRoundExecutor;
+    /** Reused to collect each event's transactions, only used by the event creation thread */
+    private final TransactionBatch.Builder eventTransactions = new TransactionBatch.Builder(MAX_TRANSACTIONS_PER_EVENT);
     public final GlobalIntakeController globalIntakeController;
     public final AtomicInteger healthPercentage = new AtomicInteger(100);
     public final AtomicLong currentRound = new AtomicLong(0);
-    public final AtomicLong ingestedTransactions = new AtomicLong(0);
+    public final Counter ingestedTransactions = new Counter();
+    /** Called with every transaction submitted to this node, null for none */
+    private volatile SubmissionListener submissionListener = null;
+    /** Latency of each stage of the transactions this node accepted */
+    public final TransactionLatencies transactionLatencies = new TransactionLatencies();
 
-    public Node(int nodeId) {
+    /**
+     * Create a node and start it creating events.
+     *
+     * @param nodeId the id of this node, starting at 1
+     * @param config the simulation settings
+     * @param scheduler the scheduler to run event creation and execution on
+     * @param gossip called with each event this node creates to gossip it to the network
+     */
+    public Node(int nodeId, SimulationConfig config, Scheduler scheduler, Consumer<Event> gossip) {
         this.nodeId = nodeId;
-        this.globalIntakeController = new GlobalIntakeController(nodeId);
+        this.scheduler = scheduler;
+        this.gossip = gossip;
+        this.incomingTransactionQueue = new TransactionRingBuffer(config.incomingQueueCapacity());
+        this.globalIntakeController = new GlobalIntakeController(nodeId, config, scheduler.clock());
+        this.workSimulator = config.workSimulator().workSimulator();
+        this.parallelRoundExecutor = config.executionThreads() > 1
+                ? new ParallelRoundExecutor(config.executionThreads(),
+                        scheduler.threadBuilder().name("node-" + nodeId + "-worker-", 0).factory(), workSimulator)
+                : null;
         // schedule event creation
-        executorService.scheduleAtFixedRate(this::createAndGossipEvent, 0, NANOS_PER_SECOND / EVENTS_PER_SECOND, TimeUnit.NANOSECONDS);
-        // create execution thread
-        Thread executionThread = new Thread(this::executeTransactions);
-        executionThread.setDaemon(true);
-        executionThread.setUncaughtExceptionHandler((t, e) ->
-                logger.log(Level.ERROR, "Execution thread interrupted: " + e.getMessage(), e));
-        executionThread.start();
+        final int eventsPerSecond = Math.max(1, NETWORK_EVENTS_PER_SECOND / config.numOfNodes());
+        scheduler.scheduleAtFixedRate(this::createAndGossipEvent, 0, NANOS_PER_SECOND / eventsPerSecond);
+        // in real time create execution thread, in virtual time rounds are executed as they arrive
+        if (scheduler.isRealTime()) {
+            executionThread = scheduler.threadBuilder()
+                    .name("node-" + nodeId + "-execution")
+                    .uncaughtExceptionHandler((t, e) ->
+                            logger.log(Level.ERROR, "Execution thread interrupted: " + e.getMessage(), e))
+                    .start(this::executeTransactions);
+        } else {
+            executionThread = null;
+        }
+    }
+
+    /**
+     * Listener for every transaction submitted to a node, accepted or not.
+     */
+    @FunctionalInterface
+    public interface SubmissionListener {
+        /**
+         * Called after the node has accepted or rejected a transaction, on the submitting thread.
+         *
+         * @param nodeId the node the transaction was submitted to
+         * @param transaction the transaction
+         * @param accepted true if the node accepted it
+         */
+        void transactionSubmitted(int nodeId, Transaction transaction, boolean accepted);
     }
 
     public int nodeId() {
         return nodeId;
     }
 
+    /**
+     * Set the listener called with every transaction submitted to this node, for example to record the load.
+     *
+     * @param submissionListener the listener, or null for none
+     */
+    public void setSubmissionListener(SubmissionListener submissionListener) {
+        this.submissionListener = submissionListener;
+    }
+
+    /**
+     * Add this node's metrics to a registry, named "node.&lt;nodeId&gt;.&lt;metric&gt;".
+     *
+     * @param registry the registry to add to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        final String prefix = "node." + nodeId + ".";
+        registry.register(prefix + "ingestedTransactions", ingestedTransactions);
+        registry.gauge(prefix + "currentRound", currentRound::get);
+        registry.gauge(prefix + "health", healthPercentage::get);
+        registry.gauge(prefix + "incomingQueue", incomingTransactionQueue::size);
+        registry.gauge(prefix + "executeQueue", roundsToExecuteQueue::size);
+        registry.gauge(prefix + "executeQueueWorkNanos", roundsToExecuteWorkNanos::get);
+        registry.gauge(prefix + "quorumHealth", globalIntakeController.quorumHealth::get);
+        registry.gauge(prefix + "tokenRate", globalIntakeController::getCurrentTokenRate);
+        registry.gauge(prefix + "tokenCount", globalIntakeController::getCurrentTokenCount);
+        registry.gauge(prefix + "throttle.rate", globalIntakeController.controller::rate);
+        globalIntakeController.controller.registerMetrics(registry, prefix);
+        final ExecutionCostEstimator estimator = globalIntakeController.executionEstimator;
+        registry.gauge(prefix + "estimate.roundNanos", estimator::roundNanos);
+        registry.gauge(prefix + "estimate.roundNanosP99", () -> estimator.roundNanosAtPercentile(99));
+        registry.gauge(prefix + "estimate.capacityTps", estimator::capacityTps);
+        registry.gauge(prefix + "estimate.capacityWorkNanosPerSecond", estimator::capacityWorkNanosPerSecond);
+        registry.gauge(prefix + "estimate.queueWaitNanos", estimator::queueWaitNanos);
+        registry.gauge(prefix + "estimate.rateCeiling", globalIntakeController::capacityRateCeiling);
+        for (TransactionType type : TransactionType.values()) {
+            registry.gauge(prefix + "intakeCostNanos." + type,
+                    () -> globalIntakeController.costEstimator.estimateNanos(type.code()));
+            registry.gauge(prefix + "estimate.costNanos." + type, () -> estimator.transactionCostNanos(type.code()));
+            registry.gauge(prefix + "estimate.costNanosP99." + type,
+                    () -> estimator.transactionCostNanosAtPercentile(type.code(), 99));
+        }
+        transactionLatencies.registerMetrics(registry, prefix + "latency.");
+    }
+
     /**
      * This method is called by the load generator to add a transaction to the incoming queue
      *
      * @return true if the transaction was accepted, false otherwise
      */
     public boolean acceptTransaction(Transaction transaction) {
-        // On each transaction intake attempt
-        if (globalIntakeController.shouldAcceptTransaction()) {
+        // On each transaction intake attempt, a full incoming queue rejects without using a token
+        boolean accepted = false;
+        if (incomingTransactionQueue.remainingCapacity() > 0
+                && globalIntakeController.shouldAcceptTransaction(transaction)) {
+            accepted = offer(transaction, scheduler.clock().nanoTime());
+            if (!accepted) {
+                // another producer took the last queue slot after the capacity check, give the tokens back
+                globalIntakeController.refund(transaction);
+            }
+        }
+        if (accepted) {
             // Accept transaction
-            incomingTransactionQueue.add(transaction);
-            ingestedTransactions.incrementAndGet();
-            return true;
-        } else {
-            // Reject or queue
-            return false;
+            ingestedTransactions.increment();
+        }
+        final SubmissionListener listener = submissionListener;
+        if (listener != null) {
+            listener.transactionSubmitted(nodeId, transaction, accepted);
+        }
+        return accepted;
+    }
+
+    /**
+     * Add a batch of transactions to the incoming queue. As many transactions from the start of the batch as the
+     * throttle allows are accepted with one throttle check, the rest are rejected, as are any that do not fit in the
+     * incoming queue, whose tokens are given back.
+     * <p>
+     * This is the intake API for clients that submit in batches, the built in load generators submit one transaction
+     * at a time through acceptTransaction().
+     *
+     * @param transactions the batch of transactions
+     * @return the number of transactions accepted, the accepted ones are the first that many in the list
+     */
+    public int acceptTransactions(List<Transaction> transactions) {
+        final int permitted = globalIntakeController.acceptUpTo(transactions,
+                Math.min(transactions.size(), incomingTransactionQueue.remainingCapacity()));
+        final long submitTimeNanos = scheduler.clock().nanoTime();
+        int accepted = 0;
+        while (accepted < permitted && offer(transactions.get(accepted), submitTimeNanos)) {
+            accepted++;
+        }
+        if (accepted < permitted) {
+            // other producers filled the queue after the capacity check, give back the tokens of those not queued
+            globalIntakeController.refund(transactions, accepted, permitted);
+        }
+        if (accepted > 0) {
+            ingestedTransactions.add(accepted);
         }
+        final SubmissionListener listener = submissionListener;
+        if (listener != null) {
+            for (int i = 0; i < transactions.size(); i++) {
+                listener.transactionSubmitted(nodeId, transactions.get(i), i < accepted);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Add a transaction to the incoming queue stamped with its submit time.
+     */
+    private boolean offer(Transaction transaction, long submitTimeNanos) {
+        return incomingTransactionQueue.offer(transaction.amountOfWorkInNanos(), submitTimeNanos,
+                transaction.type().code(), transaction.conflictKey());
     }
 
     /**
@@ -77,9 +231,26 @@ public class Node {
      */
     public void roundReachedConsensus(Round round) {
         // queue rounds for execution
+        roundsToExecuteWorkNanos.addAndGet(round.getTotalWorkInNanos());
         roundsToExecuteQueue.add(round);
+        if (executionThread != null) {
+            LockSupport.unpark(executionThread);
+        } else {
+            executeNextRoundInVirtualTime();
+        }
         // update global intake controller with the round
-        globalIntakeController.updateGlobalRate(round);
+        globalIntakeController.updateGlobalRate(round, oldestQueuedWaitNanos(), roundsToExecuteWorkNanos.get());
+    }
+
+    /**
+     * How long the oldest round still waiting in the execute queue has waited since reaching consensus.
+     *
+     * @return nanoseconds, 0 if no round is waiting
+     */
+    private long oldestQueuedWaitNanos() {
+        final Round oldest = roundsToExecuteQueue.peekFirst();
+        return oldest == null || oldest.consensusTimeNanos() <= 0
+                ? 0 : Math.max(0, scheduler.clock().nanoTime() - oldest.consensusTimeNanos());
     }
 
     private int computeHealthPercentage() {
@@ -101,23 +272,18 @@ public class Node {
     /**
      * Called at regular intervals to create an event and gossip it to all nodes, collects up to
      * MAX_TRANSACTIONS_PER_EVENT from queue and creates an event with them. Then sends it to the gossip queue.
+     * Package-private so it can be benchmarked.
      */
-    private void createAndGossipEvent() {
+    void createAndGossipEvent() {
         try {
             // collect up to MAX_TRANSACTIONS_PER_EVENT transactions from the incoming queue
-            final List<Transaction> transactions = new ArrayList<>();
-            while (!incomingTransactionQueue.isEmpty() && transactions.size() < MAX_TRANSACTIONS_PER_EVENT) {
-                Transaction transaction = incomingTransactionQueue.poll();
-                if (transaction == null) {
-                    break;
-                } else {
-                    transactions.add(transaction);
-                }
-            }
+            incomingTransactionQueue.drainTo(eventTransactions, MAX_TRANSACTIONS_PER_EVENT);
             // create the event, we send events even if we have no transactions, this is to keep the health information flowing
-            Event event = new Event(nodeId, computeHealthPercentage(), transactions);
+            final long createdNanos = scheduler.clock().nanoTime();
+            Event event = new Event(nodeId, computeHealthPercentage(), eventTransactions.build(), createdNanos);
+            transactionLatencies.recordEventCreated(event.transactions(), createdNanos);
             // gossip the event to all nodes
-            DynamicMain.gossip(event);
+            gossip.accept(event);
         } catch (Throwable e) {
             logger.log(Level.ERROR, "Error creating event: " + e.getMessage(), e);
         }
@@ -130,16 +296,53 @@ public class Node {
         while(true) {
             Round round = roundsToExecuteQueue.poll();
             if (round == null) {
-                // we have no rounds to execute, so we will sleep for a bit, should never happen when under load
-                LockSupport.parkNanos(1000); // 1ms
+                // we have no rounds to execute, so we will sleep until a round arrives, should never happen when under
+                // load. The timeout is a fallback, roundReachedConsensus() unparks this thread.
+                LockSupport.parkNanos(1_000_000); // 1ms
             } else {
+                roundsToExecuteWorkNanos.addAndGet(-round.getTotalWorkInNanos());
                 currentRound.set(round.roundNum());
-                // will sleep for the amount of work in each transaction in the round
-                round.execute();
+                final long startNanos = scheduler.clock().nanoTime();
+                if (parallelRoundExecutor != null) {
+                    parallelRoundExecutor.execute(round);
+                } else {
+                    // will take up the time of the work of all transactions in the round
+                    round.execute(workSimulator);
+                }
+                final long endNanos = scheduler.clock().nanoTime();
+                transactionLatencies.recordRoundExecuted(nodeId, round, startNanos, endNanos);
+                globalIntakeController.roundExecuted(round, startNanos, endNanos);
             }
         }
     }
 
+    /**
+     * Virtual time equivalent of executeTransactions(), if the node is idle it takes the next round off the queue and
+     * schedules its completion after the round's total work time, or the time the parallel executor would take.
+     * Completion then starts the next round.
+     */
+    private void executeNextRoundInVirtualTime() {
+        if (executingInVirtualTime) {
+            return;
+        }
+        final Round round = roundsToExecuteQueue.poll();
+        if (round != null) {
+            roundsToExecuteWorkNanos.addAndGet(-round.getTotalWorkInNanos());
+            executingInVirtualTime = true;
+            currentRound.set(round.roundNum());
+            final long startNanos = scheduler.clock().nanoTime();
+            scheduler.schedule(() -> {
+                final long endNanos = scheduler.clock().nanoTime();
+                transactionLatencies.recordRoundExecuted(nodeId, round, startNanos, endNanos);
+                globalIntakeController.roundExecuted(round, startNanos, endNanos);
+                executingInVirtualTime = false;
+                executeNextRoundInVirtualTime();
+            }, parallelRoundExecutor != null
+                    ? parallelRoundExecutor.executionTimeNanos(round)
+                    : round.getTotalWorkInNanos());
+        }
+    }
+
     @Override
     public String toString() {
         return switch(nodeId) {
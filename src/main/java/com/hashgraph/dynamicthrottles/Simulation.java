@@ -0,0 +1,179 @@
+package com.hashgraph.dynamicthrottles;
+
+import com.hashgraph.dynamicthrottles.metrics.Counter;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.metrics.TransactionLatencies;
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.RoundSummary;
+import com.hashgraph.dynamicthrottles.replay.ReplayDriver;
+import com.hashgraph.dynamicthrottles.replay.ReplayReader;
+import com.hashgraph.dynamicthrottles.replay.ReplayRecorder;
+import com.hashgraph.dynamicthrottles.simulated.ConsensusModel;
+import com.hashgraph.dynamicthrottles.simulated.ConsensusPipeline;
+import com.hashgraph.dynamicthrottles.time.RealTimeScheduler;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import com.hashgraph.dynamicthrottles.time.ThreadModel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * One complete simulated network, the nodes, consensus and load generator along with its metrics. Nothing is shared
+ * between simulations so many can run in parallel, each driven by its own scheduler.
+ */
+public class Simulation {
+    /** Metric names of the counters of rounds, events and transactions reaching consensus and their total work */
+    public static final String ROUNDS_METRIC = "consensus.rounds";
+    public static final String EVENTS_METRIC = "consensus.events";
+    public static final String TRANSACTIONS_METRIC = "consensus.transactions";
+    public static final String TRANSACTION_WORK_NANOS_METRIC = "consensus.transactionWorkNanos";
+    public final SimulationConfig config;
+    public final Scheduler scheduler;
+    public final List<Node> nodes;
+    public final ConsensusPipeline consensusPipeline;
+    public final ConsensusModel consensus;
+    public final LoadGenerator loadGenerator;
+    /** All the simulation's metrics, the consensus counters below and those of the nodes, pipeline and load */
+    public final MetricsRegistry metrics;
+    // gather metrics
+    public final Counter rounds;
+    public final Counter events;
+    public final Counter transactions;
+    public final Counter transactionWorkNanos;
+    /** Replays a recorded run in place of the load generator and consensus when set, else null */
+    private volatile ReplayDriver replayDriver = null;
+    /** Called with each round after it has been handed to the nodes */
+    private final List<Consumer<Round>> roundListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Create a new simulation, nodes start creating events straight away but no load is generated until start() is
+     * called.
+     *
+     * @param config the network size and throttle settings
+     * @param scheduler the scheduler to run all timed work on, real time or virtual time
+     * @throws IllegalArgumentException if a busy waiting work simulator is combined with virtual threads
+     */
+    public Simulation(SimulationConfig config, Scheduler scheduler) {
+        if (scheduler instanceof RealTimeScheduler realTime && realTime.threadModel() == ThreadModel.VIRTUAL
+                && config.workSimulator().busyWaits()) {
+            // a spinning virtual thread pins its carrier, starving every other node sharing the carriers
+            throw new IllegalArgumentException("workSimulator " + config.workSimulator()
+                    + " busy waits and can not run on virtual threads, use PARK or ACCOUNTING");
+        }
+        this.config = config;
+        this.scheduler = scheduler;
+        this.metrics = new MetricsRegistry(scheduler.clock());
+        this.rounds = metrics.counter(ROUNDS_METRIC);
+        this.events = metrics.counter(EVENTS_METRIC);
+        this.transactions = metrics.counter(TRANSACTIONS_METRIC);
+        this.transactionWorkNanos = metrics.counter(TRANSACTION_WORK_NANOS_METRIC);
+        // consensus first, nodes start gossiping events as soon as they are created
+        this.consensusPipeline = new ConsensusPipeline(this::handleNewRound, config, scheduler);
+        this.consensus = consensusPipeline.consensus;
+        this.nodes = IntStream.range(1, config.numOfNodes() + 1)
+                .mapToObj(nodeId -> new Node(nodeId, config, scheduler, this::gossip))
+                .toList();
+        this.loadGenerator = LoadGenerator.create(config, scheduler, nodes);
+        metrics.gauge("consensus.queueSize", consensus::consensusQueueSize);
+        metrics.gauge("consensus.currentRound", consensus::currentRound);
+        consensusPipeline.registerMetrics(metrics);
+        nodes.forEach(node -> node.registerMetrics(metrics));
+        loadGenerator.registerMetrics(metrics);
+    }
+
+    public void start() {
+        if (replayDriver != null) {
+            replayDriver.start();
+        } else {
+            // Start load generator
+            loadGenerator.start();
+        }
+    }
+
+    /**
+     * Record every transaction submitted to the nodes and every round that reaches consensus, so the run can be
+     * replayed. Call straight after creating the simulation, before start().
+     *
+     * @param recorder the recorder to write to, closed by the caller after the run
+     */
+    public void recordTo(ReplayRecorder recorder) {
+        nodes.forEach(node -> node.setSubmissionListener(recorder::transactionSubmitted));
+        addRoundListener(recorder::roundReachedConsensus);
+    }
+
+    /**
+     * Replay a recorded run instead of generating load and forming rounds. The recorded transactions are submitted to
+     * the nodes and the recorded rounds handed to them, the events the nodes create are dropped. Call straight after
+     * creating the simulation, before start().
+     *
+     * @param reader the recorded run, closed when the replay finishes
+     * @return the replay driver, for its progress and counters
+     * @throws IllegalArgumentException if the recorded network has a different number of nodes
+     */
+    public ReplayDriver replayFrom(ReplayReader reader) {
+        final ReplayDriver driver = new ReplayDriver(scheduler, reader, nodes, this::handleNewRound);
+        driver.registerMetrics(metrics);
+        replayDriver = driver;
+        return driver;
+    }
+
+    /**
+     * Get the transaction latencies of the whole network, each node's latencies added together.
+     *
+     * @return a new copy of the network wide latencies
+     */
+    public TransactionLatencies getTransactionLatencies() {
+        final TransactionLatencies latencies = new TransactionLatencies();
+        for (Node node : nodes) {
+            latencies.add(node.transactionLatencies);
+        }
+        return latencies;
+    }
+
+    /**
+     * Add a listener called with each round after it has been handed to the nodes, on the pipeline's delivery thread in
+     * real time.
+     *
+     * @param listener the listener
+     */
+    public void addRoundListener(Consumer<Round> listener) {
+        roundListeners.add(listener);
+    }
+
+    /**
+     * Called by consensus when it has a created a new round to process, on the pipeline's delivery thread in real time.
+     *
+     * @param round the round to process
+     */
+    private void handleNewRound(Round round) {
+        // compute a bunch of metrics for debugging, from the round summary rather than rescanning the events
+        final RoundSummary summary = round.summary();
+        rounds.increment();
+        events.add(summary.eventCount());
+        transactions.add(summary.transactionCount());
+        transactionWorkNanos.add(summary.totalWorkNanos());
+        // send the round to all nodes
+        for (Node node : nodes) {
+            node.roundReachedConsensus(round);
+        }
+        for (Consumer<Round> listener : roundListeners) {
+            listener.accept(round);
+        }
+    }
+
+    /**
+     * Called by a node when it has a event to gossip to the other nodes.
+     *
+     * @param event the event to gossip
+     */
+    private void gossip(Event event) {
+        // when replaying the recorded rounds stand in for consensus
+        if (replayDriver != null) {
+            return;
+        }
+        // send event to consensus, in real time this only queues it for the consensus thread
+        consensusPipeline.addEvent(event);
+    }
+}
@@ -0,0 +1,288 @@
+package com.hashgraph.dynamicthrottles;
+
+import com.hashgraph.dynamicthrottles.impl.IntakeCostModel;
+import com.hashgraph.dynamicthrottles.impl.TokenBucketType;
+import com.hashgraph.dynamicthrottles.load.ArrivalProcessType;
+import com.hashgraph.dynamicthrottles.load.LoadModel;
+import com.hashgraph.dynamicthrottles.load.RetryPolicyType;
+import com.hashgraph.dynamicthrottles.simulated.ConsensusModelType;
+import com.hashgraph.dynamicthrottles.throttle.ThrottleAlgorithm;
+import com.hashgraph.dynamicthrottles.time.WorkSimulatorType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+
+/**
+ * The tunable parameters of a single simulation run, the network size and the throttle settings that used to be
+ * constants. Each {@link Simulation} gets its own config so many differently configured networks can run side by side.
+ *
+ * @param numOfNodes the number of nodes in the network
+ * @param tokenBucketCapacity the maximum number of tokens in each node's token bucket, the allowed burst
+ * @param minRefillRate the minimum token refill rate in tokens per second, used when quorum health is 0
+ * @param maxRefillRate the maximum token refill rate in tokens per second, used when quorum health is 1
+ * @param initialRefillRate the token refill rate at startup in tokens per second
+ * @param emaSmoothingFactor the EMA smoothing factor for refill rate changes, 0 &lt; alpha &lt;= 1, lower is smoother
+ * @param tokenBucketType the token bucket implementation used by each node's intake controller
+ * @param averagingWindowSize the number of rounds the quorum health is averaged over
+ * @param incomingQueueCapacity the maximum number of accepted transactions each node queues waiting to go into events,
+ *                              intake is rejected while the queue is full
+ * @param consensusModel how events are formed into rounds
+ * @param gossipLatencyMinMillis GOSSIP model, the minimum base one way gossip latency between a pair of nodes
+ * @param gossipLatencyMaxMillis GOSSIP model, the maximum base one way gossip latency between a pair of nodes
+ * @param gossipLatencyJitter GOSSIP model, sigma of the lognormal jitter on each event's latency, 0 for none
+ * @param stakeSkew GOSSIP model, node stake falls off as 1/nodeId^stakeSkew, 0 for equal stake
+ * @param consensusDelayMillis GOSSIP model, time from an event being seen by a supermajority to it being ready for
+ *                             consensus
+ * @param consensusDelayPerEventMicros GOSSIP model, extra consensus delay for each event waiting for consensus
+ * @param executionThreads the number of threads each node executes rounds on, 1 executes rounds serially, more runs
+ *                         transactions with different conflict keys in parallel
+ * @param conflictKeySpace the number of distinct conflict keys, accounts or contracts, generated transactions are
+ *                         spread over, fewer means more conflicts
+ * @param workSimulator how transaction work takes up time when executing in real time, virtual time always accounts
+ *                      for work on the virtual clock
+ * @param loadModel how load is offered, the original closed loop client or many open loop clients
+ * @param offeredTps OPEN_LOOP, the transactions per second offered by all clients together, not counting retries
+ * @param loadClients OPEN_LOOP, the number of clients the offered TPS is shared between
+ * @param arrivalProcess OPEN_LOOP, how each client spaces its transactions
+ * @param burstPeriodMillis ON_OFF arrivals, the period of the bursts
+ * @param burstDutyCycle ON_OFF arrivals, the fraction of each period that transactions arrive in, 0 &lt; duty &lt;= 1
+ * @param traceFile TRACE arrivals, the file of arrival times in seconds, one per line
+ * @param retryPolicy OPEN_LOOP, how clients retry rejected transactions
+ * @param retryBaseMillis OPEN_LOOP, the delay before the first retry
+ * @param maxRetries OPEN_LOOP, the number of retries before a rejected transaction is dropped
+ * @param workloadProfile the transaction types, their work distributions and mix timeline, a built in profile name or a
+ *                        profile file, see {@link com.hashgraph.dynamicthrottles.load.WorkloadProfile}. Empty for the
+ *                        untyped uniform workload scaled by percentageLargeTransactions
+ * @param intakeCostModel what intake charges each transaction, one token or its estimated execution cost
+ * @param transactionTypeCostMicros TYPE and LEARNED intake, the estimated cost of each transaction type, for example
+ *                                  "CRYPTO_TRANSFER=62,SMART_CONTRACT=309", unlisted types cost the smallest
+ *                                  transaction. LEARNED starts from these and learns from executed rounds,
+ *                                  TYPE keeps them, so UNTYPED transactions keep one cost however
+ *                                  percentageLargeTransactions changes their work
+ * @param capacityFeedForward cap each node's health based intake rate at this fraction of its share of the execution
+ *                            capacity estimated from executed rounds, 0 for no cap
+ * @param throttleAlgorithm how each node's intake rate is chosen from round health, see
+ *                          {@link com.hashgraph.dynamicthrottles.throttle.ThrottleController}
+ * @param seed the seed for the random number generators of the load generator and consensus
+ */
+public record SimulationConfig(
+        int numOfNodes,
+        long tokenBucketCapacity,
+        double minRefillRate,
+        double maxRefillRate,
+        double initialRefillRate,
+        double emaSmoothingFactor,
+        TokenBucketType tokenBucketType,
+        int averagingWindowSize,
+        int incomingQueueCapacity,
+        ConsensusModelType consensusModel,
+        double gossipLatencyMinMillis,
+        double gossipLatencyMaxMillis,
+        double gossipLatencyJitter,
+        double stakeSkew,
+        double consensusDelayMillis,
+        double consensusDelayPerEventMicros,
+        int executionThreads,
+        int conflictKeySpace,
+        WorkSimulatorType workSimulator,
+        LoadModel loadModel,
+        double offeredTps,
+        int loadClients,
+        ArrivalProcessType arrivalProcess,
+        long burstPeriodMillis,
+        double burstDutyCycle,
+        String traceFile,
+        RetryPolicyType retryPolicy,
+        long retryBaseMillis,
+        int maxRetries,
+        String workloadProfile,
+        IntakeCostModel intakeCostModel,
+        String transactionTypeCostMicros,
+        double capacityFeedForward,
+        ThrottleAlgorithm throttleAlgorithm,
+        long seed) {
+    /** The settings the simulator has always run with */
+    public static final SimulationConfig DEFAULT = new SimulationConfig(
+            5,        // number of nodes
+            15000,    // capacity
+            2.0,      // min refill rate
+            15000.0,  // max refill rate
+            5000.0,   // initial refill rate
+            0.05,     // EMA smoothing factor
+            TokenBucketType.SYNCHRONIZED,
+            2,        // quorum health averaging window
+            Node.MAX_TRANSACTIONS_QUEUE_SIZE,
+            ConsensusModelType.RANDOM,
+            5.0,      // min gossip latency millis
+            100.0,    // max gossip latency millis
+            0.2,      // gossip latency jitter
+            0.0,      // stake skew, equal stake
+            200.0,    // consensus delay millis
+            100.0,    // consensus delay per waiting event micros
+            1,        // execution threads, serial
+            10_000,   // conflict keys
+            WorkSimulatorType.PARK,
+            LoadModel.CLOSED_LOOP,
+            50_000.0, // offered TPS, open loop
+            100,      // load clients, open loop
+            ArrivalProcessType.POISSON,
+            1000,     // burst period millis
+            0.2,      // burst duty cycle
+            "",       // trace file
+            RetryPolicyType.EXPONENTIAL,
+            10,       // retry base delay millis
+            3,        // max retries
+            "",       // workload profile, untyped uniform
+            IntakeCostModel.COUNT,
+            "CRYPTO_TRANSFER=62,TOKEN_MINT=162,SMART_CONTRACT=309", // estimated costs, means of the built in profiles
+            0.0,      // capacity feed forward, off
+            ThrottleAlgorithm.EMA_BUCKET,
+            3518465419866731650L);
+
+    public SimulationConfig {
+        if (numOfNodes <= 0) {
+            throw new IllegalArgumentException("numOfNodes must be positive");
+        }
+        if (tokenBucketCapacity <= 0) {
+            throw new IllegalArgumentException("tokenBucketCapacity must be positive");
+        }
+        if (minRefillRate < 0 || maxRefillRate < minRefillRate) {
+            throw new IllegalArgumentException("refill rates must satisfy 0 <= minRefillRate <= maxRefillRate");
+        }
+        if (emaSmoothingFactor <= 0 || emaSmoothingFactor > 1) {
+            throw new IllegalArgumentException("emaSmoothingFactor must be in (0, 1]");
+        }
+        if (tokenBucketType == null) {
+            throw new IllegalArgumentException("tokenBucketType must be non-null");
+        }
+        if (averagingWindowSize <= 0) {
+            throw new IllegalArgumentException("averagingWindowSize must be positive");
+        }
+        if (incomingQueueCapacity <= 0) {
+            throw new IllegalArgumentException("incomingQueueCapacity must be positive");
+        }
+        if (consensusModel == null) {
+            throw new IllegalArgumentException("consensusModel must be non-null");
+        }
+        if (gossipLatencyMinMillis < 0 || gossipLatencyMaxMillis < gossipLatencyMinMillis) {
+            throw new IllegalArgumentException(
+                    "gossip latencies must satisfy 0 <= gossipLatencyMinMillis <= gossipLatencyMaxMillis");
+        }
+        if (gossipLatencyJitter < 0 || stakeSkew < 0 || consensusDelayMillis < 0 || consensusDelayPerEventMicros < 0) {
+            throw new IllegalArgumentException(
+                    "gossipLatencyJitter, stakeSkew, consensusDelayMillis and consensusDelayPerEventMicros must be "
+                            + "non-negative");
+        }
+        if (executionThreads <= 0) {
+            throw new IllegalArgumentException("executionThreads must be positive");
+        }
+        if (conflictKeySpace <= 0) {
+            throw new IllegalArgumentException("conflictKeySpace must be positive");
+        }
+        if (workSimulator == null) {
+            throw new IllegalArgumentException("workSimulator must be non-null");
+        }
+        if (loadModel == null || arrivalProcess == null || retryPolicy == null || traceFile == null
+                || workloadProfile == null) {
+            throw new IllegalArgumentException(
+                    "loadModel, arrivalProcess, retryPolicy, traceFile and workloadProfile must be non-null");
+        }
+        if (intakeCostModel == null || transactionTypeCostMicros == null) {
+            throw new IllegalArgumentException("intakeCostModel and transactionTypeCostMicros must be non-null");
+        }
+        if (throttleAlgorithm == null) {
+            throw new IllegalArgumentException("throttleAlgorithm must be non-null");
+        }
+        if (capacityFeedForward < 0) {
+            throw new IllegalArgumentException("capacityFeedForward must be non-negative");
+        }
+        if (offeredTps <= 0 || loadClients <= 0) {
+            throw new IllegalArgumentException("offeredTps and loadClients must be positive");
+        }
+        if (burstPeriodMillis <= 0 || burstDutyCycle <= 0 || burstDutyCycle > 1) {
+            throw new IllegalArgumentException("burstPeriodMillis must be positive and burstDutyCycle in (0, 1]");
+        }
+        if (retryBaseMillis < 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("retryBaseMillis and maxRetries must be non-negative");
+        }
+    }
+
+    /**
+     * Create a copy of this config with one parameter changed, used to build configs from parameter names on the
+     * command line.
+     *
+     * @param name the parameter name, one of the record component names
+     * @param value the new value as a string, parsed to the type of the component
+     * @return the new config
+     * @throws IllegalArgumentException if there is no parameter with that name or the value can not be parsed
+     */
+    public SimulationConfig with(String name, String value) {
+        final RecordComponent[] components = SimulationConfig.class.getRecordComponents();
+        final Class<?>[] types = new Class<?>[components.length];
+        final Object[] values = new Object[components.length];
+        boolean found = false;
+        try {
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                if (components[i].getName().equals(name)) {
+                    values[i] = parseValue(types[i], value);
+                    found = true;
+                } else {
+                    values[i] = components[i].getAccessor().invoke(this);
+                }
+            }
+            if (!found) {
+                throw new IllegalArgumentException("Unknown simulation parameter: " + name);
+            }
+            return SimulationConfig.class.getDeclaredConstructor(types).newInstance(values);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + e.getCause().getMessage(),
+                    e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Create a copy of this config with any parameter that is set as a system property changed, the property name is
+     * the prefix followed by the parameter name, for example -Ddynamicthrottles.numOfNodes=200.
+     *
+     * @param prefix the system property name prefix
+     * @return the new config
+     * @throws IllegalArgumentException if a property value can not be parsed
+     */
+    public SimulationConfig withSystemProperties(String prefix) {
+        SimulationConfig config = this;
+        for (RecordComponent component : SimulationConfig.class.getRecordComponents()) {
+            final String value = System.getProperty(prefix + component.getName());
+            if (value != null) {
+                config = config.with(component.getName(), value);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Parse a parameter value string into a component type.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parseValue(Class<?> type, String value) {
+        if (type == int.class) {
+            return (int) Math.round(Double.parseDouble(value));
+        } else if (type == long.class) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return Math.round(Double.parseDouble(value));
+            }
+        } else if (type == double.class) {
+            return Double.parseDouble(value);
+        } else if (type == boolean.class) {
+            return Boolean.parseBoolean(value);
+        } else if (type == String.class) {
+            return value;
+        } else if (type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, value.toUpperCase());
+        }
+        throw new IllegalArgumentException("Unsupported parameter type: " + type);
+    }
+}
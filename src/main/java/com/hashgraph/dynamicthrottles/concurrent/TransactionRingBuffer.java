@@ -0,0 +1,158 @@
+package com.hashgraph.dynamicthrottles.concurrent;
+
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded lock-free multi-producer, single-consumer queue of transactions. Transactions are stored in primitive
+ * columns in a ring of slots so offering and draining never allocate, and size is a subtraction of two counters rather
+ * than a walk of the queue, so it is cheap enough to sample on every event for node health.
+ * <p>
+ * Each slot has a sequence number, a producer claims a position by CAS on the tail, writes the slot then publishes it
+ * by setting the slot sequence. The single consumer waits for the sequence before reading and then frees the slot for
+ * the next lap of the ring. The ring is sized to a power of two, but offers are rejected once capacity transactions are
+ * queued, so the capacity does not need to be a power of two.
+ * <p>
+ * Any number of threads may offer, only one thread at a time may drain.
+ */
+public final class TransactionRingBuffer {
+    private final int capacity;
+    private final int mask;
+    /** Per slot sequence, equal to the position when free for a producer, position + 1 when ready for the consumer */
+    private final AtomicLongArray sequences;
+    private final int[] work;
+    private final long[] submitTimes;
+    private final byte[] types;
+    private final int[] conflictKeys;
+    /** The next position to be claimed by a producer */
+    private final AtomicLong tail = new AtomicLong(0);
+    /** The next position to be read by the consumer */
+    private final AtomicLong head = new AtomicLong(0);
+
+    /**
+     * Create a ring buffer.
+     *
+     * @param capacity the maximum number of queued transactions
+     */
+    public TransactionRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        this.capacity = capacity;
+        final int slots = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = slots - 1;
+        this.sequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            sequences.set(i, i);
+        }
+        this.work = new int[slots];
+        this.submitTimes = new long[slots];
+        this.types = new byte[slots];
+        this.conflictKeys = new int[slots];
+    }
+
+    /**
+     * Offer a transaction record.
+     *
+     * @param transaction the transaction to queue
+     * @return true if queued, false if the queue is full
+     */
+    public boolean offer(Transaction transaction) {
+        return offer(transaction.amountOfWorkInNanos(), 0, transaction.type().code(), transaction.conflictKey());
+    }
+
+    /**
+     * Offer a transaction.
+     *
+     * @param workInNanos the amount of work in nanoseconds
+     * @param submitTimeNanos the time the transaction was submitted, 0 if not recorded
+     * @param type the transaction type code, NO_TYPE if not recorded
+     * @param conflictKey the transaction conflict key, Transaction.NO_CONFLICT_KEY if none
+     * @return true if queued, false if the queue is full
+     */
+    public boolean offer(int workInNanos, long submitTimeNanos, byte type, int conflictKey) {
+        long position = tail.get();
+        while (true) {
+            if (position - head.get() >= capacity) {
+                return false;
+            }
+            final int slot = (int) (position & mask);
+            final long difference = sequences.getAcquire(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    work[slot] = workInNanos;
+                    submitTimes[slot] = submitTimeNanos;
+                    types[slot] = type;
+                    conflictKeys[slot] = conflictKey;
+                    sequences.setRelease(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // slot from the previous lap not yet freed by the consumer, so the ring is full
+                return false;
+            } else {
+                // another producer claimed this position, catch up
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to max transactions from the head of the queue into a batch builder. Stops early at a slot that has been
+     * claimed but not yet written by a producer.
+     *
+     * @param batch the builder to add transactions to
+     * @param max the maximum number of transactions to drain
+     * @return the number of transactions drained
+     */
+    public int drainTo(TransactionBatch.Builder batch, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            final int slot = (int) (position & mask);
+            if (sequences.getAcquire(slot) != position + 1) {
+                break;
+            }
+            batch.add(work[slot], submitTimes[slot], types[slot], conflictKeys[slot]);
+            sequences.setRelease(slot, position + mask + 1);
+            position++;
+            drained++;
+        }
+        if (drained > 0) {
+            head.set(position);
+        }
+        return drained;
+    }
+
+    /**
+     * Get the number of queued transactions, O(1). Under concurrent offers this is a snapshot that may include
+     * transactions still being written.
+     *
+     * @return the number of queued transactions
+     */
+    public int size() {
+        // read head first so a concurrent drain can not make the result negative
+        final long currentHead = head.get();
+        return (int) Math.max(0, Math.min(capacity, tail.get() - currentHead));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the space left in the queue, a snapshot under concurrent offers.
+     *
+     * @return the number of transactions that can currently be offered
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+}
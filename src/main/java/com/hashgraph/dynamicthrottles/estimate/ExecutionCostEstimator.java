@@ -0,0 +1,197 @@
+package com.hashgraph.dynamicthrottles.estimate;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Online estimate of a node's execution cost and capacity, learned from how long each executed round actually took.
+ * <p>
+ * Each round's measured execution time is tracked with an exponentially weighted moving average and a windowed
+ * quantile sketch. A round is executed as a whole, so each transaction's measured cost is its share of the round's time
+ * in proportion to its declared work, tracked per transaction type the same way. Capacity is how much the node
+ * executes per second while busy, the EWMA of declared work per measured nanosecond, in work nanoseconds per second,
+ * and that divided by the EWMA of the declared work of a transaction, in transactions per second. It captures
+ * parallel execution and any overrun of the work simulator in real time.
+ * <p>
+ * It also tracks how long each round waited in the execute queue, from reaching consensus to starting execution, the
+ * most recent wait and its EWMA.
+ * <p>
+ * roundExecuted() must be called from one thread at a time, the getters from any thread.
+ */
+public class ExecutionCostEstimator {
+    /** Weight of each round in the moving averages */
+    private static final double SMOOTHING_FACTOR = 0.1;
+    /** Rounds in each window of the quantile sketches */
+    private static final int QUANTILE_WINDOW_ROUNDS = 100;
+
+    private final WindowedQuantileSketch roundNanosSketch = new WindowedQuantileSketch(QUANTILE_WINDOW_ROUNDS);
+    private final WindowedQuantileSketch[] typeCostSketches = new WindowedQuantileSketch[TransactionType.count()];
+    /** EWMA of measured transaction cost by type code as double bits, NaN until a transaction of the type executes */
+    private final AtomicLongArray typeCostNanosBits = new AtomicLongArray(TransactionType.count());
+    /** Scratch per type totals of the round being learned from, only used by the round thread */
+    private final long[] roundTypeWorkNanos = new long[TransactionType.count()];
+    private final int[] roundTypeCounts = new int[TransactionType.count()];
+    private volatile double roundNanos = Double.NaN;
+    private volatile double workNanosPerNano = Double.NaN;
+    private volatile double transactionWorkNanos = Double.NaN;
+    private volatile long roundsExecuted = 0;
+    private volatile long lastQueueWaitNanos = 0;
+    private volatile double queueWaitNanos = Double.NaN;
+
+    public ExecutionCostEstimator() {
+        for (int code = 0; code < typeCostSketches.length; code++) {
+            typeCostSketches[code] = new WindowedQuantileSketch(QUANTILE_WINDOW_ROUNDS);
+            typeCostNanosBits.set(code, Double.doubleToLongBits(Double.NaN));
+        }
+    }
+
+    /**
+     * Learn from a round this node has executed.
+     *
+     * @param round the executed round
+     * @param startNanos the time execution started
+     * @param endNanos the time execution finished
+     */
+    public void roundExecuted(Round round, long startNanos, long endNanos) {
+        if (round.consensusTimeNanos() > 0) {
+            lastQueueWaitNanos = Math.max(0, startNanos - round.consensusTimeNanos());
+            queueWaitNanos = ewma(queueWaitNanos, lastQueueWaitNanos);
+        }
+        final long elapsedNanos = endNanos - startNanos;
+        final long declaredNanos = round.getTotalWorkInNanos();
+        final int transactionCount = round.summary().transactionCount();
+        if (elapsedNanos <= 0 || declaredNanos <= 0 || transactionCount == 0) {
+            return;
+        }
+        roundNanos = ewma(roundNanos, elapsedNanos);
+        roundNanosSketch.record(elapsedNanos, 1);
+        roundNanosSketch.endSample();
+        workNanosPerNano = ewma(workNanosPerNano, declaredNanos / (double) elapsedNanos);
+        transactionWorkNanos = ewma(transactionWorkNanos, declaredNanos / (double) transactionCount);
+        // apportion the measured time to transactions by declared work
+        final double measuredPerDeclared = elapsedNanos / (double) declaredNanos;
+        for (PostConsensusEvent event : round.events()) {
+            final TransactionBatch transactions = event.event().transactions();
+            for (int i = 0; i < transactions.size(); i++) {
+                final byte type = transactions.type(i);
+                final int work = transactions.workInNanos(i);
+                roundTypeWorkNanos[type] += work;
+                roundTypeCounts[type]++;
+                typeCostSketches[type].record(Math.round(work * measuredPerDeclared), 1);
+            }
+        }
+        for (int code = 0; code < roundTypeCounts.length; code++) {
+            if (roundTypeCounts[code] > 0) {
+                typeCostNanosBits.set(code, Double.doubleToLongBits(ewma(transactionCostNanos((byte) code),
+                        roundTypeWorkNanos[code] * measuredPerDeclared / roundTypeCounts[code])));
+                typeCostSketches[code].endSample();
+                roundTypeWorkNanos[code] = 0;
+                roundTypeCounts[code] = 0;
+            }
+        }
+        roundsExecuted++;
+    }
+
+    /**
+     * Has at least one round been learned from.
+     *
+     * @return true if the estimates are available
+     */
+    public boolean hasEstimate() {
+        return roundsExecuted > 0;
+    }
+
+    /**
+     * Get the EWMA of measured round execution time.
+     *
+     * @return nanoseconds, NaN before the first round
+     */
+    public double roundNanos() {
+        return roundNanos;
+    }
+
+    /**
+     * Get a quantile of recent measured round execution times.
+     *
+     * @param percentile the percentile, 0 to 100
+     * @return nanoseconds, 0 before the first round
+     */
+    public long roundNanosAtPercentile(double percentile) {
+        return roundNanosSketch.valueAtPercentile(percentile);
+    }
+
+    /**
+     * Get the EWMA of the measured cost of a transaction type.
+     *
+     * @param typeCode the transaction type code
+     * @return nanoseconds, NaN before the first transaction of the type
+     */
+    public double transactionCostNanos(byte typeCode) {
+        return Double.longBitsToDouble(typeCostNanosBits.get(typeCode));
+    }
+
+    /**
+     * Get a quantile of recent measured costs of a transaction type.
+     *
+     * @param typeCode the transaction type code
+     * @param percentile the percentile, 0 to 100
+     * @return nanoseconds, 0 before the first transaction of the type
+     */
+    public long transactionCostNanosAtPercentile(byte typeCode, double percentile) {
+        return typeCostSketches[typeCode].valueAtPercentile(percentile);
+    }
+
+    /**
+     * Get the EWMA of the declared work of an executed transaction.
+     *
+     * @return nanoseconds, NaN before the first round
+     */
+    public double transactionWorkNanos() {
+        return transactionWorkNanos;
+    }
+
+    /**
+     * Get how long the most recently started round waited in the execute queue.
+     *
+     * @return nanoseconds from the round reaching consensus to its execution starting, 0 before the first round
+     */
+    public long lastQueueWaitNanos() {
+        return lastQueueWaitNanos;
+    }
+
+    /**
+     * Get the EWMA of how long rounds waited in the execute queue.
+     *
+     * @return nanoseconds, NaN before the first round
+     */
+    public double queueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * Get the estimated capacity in declared work executed per second while busy.
+     *
+     * @return work nanoseconds per second, NaN before the first round
+     */
+    public double capacityWorkNanosPerSecond() {
+        return workNanosPerNano * NANOS_PER_SECOND;
+    }
+
+    /**
+     * Get the estimated capacity in transactions of the recent mean cost executed per second while busy.
+     *
+     * @return transactions per second, NaN before the first round
+     */
+    public double capacityTps() {
+        return capacityWorkNanosPerSecond() / transactionWorkNanos;
+    }
+
+    private static double ewma(double previous, double value) {
+        return Double.isNaN(previous) ? value : previous + SMOOTHING_FACTOR * (value - previous);
+    }
+}
@@ -0,0 +1,73 @@
+package com.hashgraph.dynamicthrottles.estimate;
+
+import com.hashgraph.dynamicthrottles.metrics.LogLinearHistogram;
+
+/**
+ * Quantiles of recent values, a {@link LogLinearHistogram} over a window of samples that is replaced once full, so the
+ * quantiles follow a changing workload rather than averaging over the whole run. Quantiles are read from the last
+ * complete window, or the window being filled before the first completes.
+ * <p>
+ * Three histograms rotate, the one being filled, the last complete one being read and the oldest, which is reset as it
+ * becomes the one being filled, so a reader never sees a histogram being reset. record() and endSample() must be called
+ * from one thread at a time, valueAtPercentile() from any thread.
+ */
+public final class WindowedQuantileSketch {
+    private final LogLinearHistogram[] windows = {
+            new LogLinearHistogram(), new LogLinearHistogram(), new LogLinearHistogram()};
+    /** The number of samples in each window */
+    private final int windowSamples;
+    /** Samples ended in the window being filled, only used by the recording thread */
+    private int samplesInWindow = 0;
+    /** Index of the window being filled */
+    private volatile int current = 0;
+    /** True once a window has completed */
+    private volatile boolean hasCompleteWindow = false;
+
+    /**
+     * @param windowSamples the number of samples, for example rounds, in each window
+     */
+    public WindowedQuantileSketch(int windowSamples) {
+        if (windowSamples <= 0) {
+            throw new IllegalArgumentException("windowSamples must be positive");
+        }
+        this.windowSamples = windowSamples;
+    }
+
+    /**
+     * Record a value in the window being filled.
+     *
+     * @param value the value
+     * @param count the number of times to record it
+     */
+    public void record(long value, long count) {
+        windows[current].record(value, count);
+    }
+
+    /**
+     * End a sample, the values recorded since the last call, moving to a new window if this one is full.
+     */
+    public void endSample() {
+        if (++samplesInWindow < windowSamples) {
+            return;
+        }
+        samplesInWindow = 0;
+        final int next = (current + 1) % windows.length;
+        windows[next].reset();
+        current = next;
+        hasCompleteWindow = true;
+    }
+
+    /**
+     * Get a quantile of the last complete window.
+     *
+     * @param percentile the percentile, 0 to 100
+     * @return the value at the percentile, 0 if nothing has been recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        final int filling = current;
+        final LogLinearHistogram window = hasCompleteWindow
+                ? windows[(filling + windows.length - 1) % windows.length]
+                : windows[filling];
+        return window.count() == 0 ? 0 : window.valueAtPercentile(percentile);
+    }
+}
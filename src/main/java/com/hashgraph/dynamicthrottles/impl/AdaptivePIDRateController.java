@@ -1,4 +1,5 @@
 package com.hashgraph.dynamicthrottles.impl;
+import com.hashgraph.dynamicthrottles.time.Clock;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
@@ -22,6 +23,7 @@ public class AdaptivePIDRateController {
     private static final double INITIAL_MIN_RATE = 2.0;      // Minimum allowed global intake rate (txn/sec)
     private static final double INITIAL_MAX_RATE = 10000.0;     // Maximum allowed global intake rate
     private static final double INITIAL_RATE = 5000.0;  // Starting rate (mid-range)
+    private static final double MAX_GAIN_FACTOR = 100.0; // Gains are tuned within this factor of their initial values
 
     private double kp;
     private double ki;
@@ -34,6 +36,7 @@ public class AdaptivePIDRateController {
     private double previousError = 0.0;
     private double currentRate;
     private long lastUpdateTime;
+    private final Clock clock;
 
     private final Deque<Double> recentErrors = new ArrayDeque<>();
     private final Deque<Double> recentRates = new ArrayDeque<>();
@@ -44,13 +47,33 @@ public class AdaptivePIDRateController {
     private final double oscillationThreshold = 0.1; // Threshold for detecting rate instability
 
     public AdaptivePIDRateController() {
+        this(Clock.SYSTEM);
+    }
+
+    public AdaptivePIDRateController(Clock clock) {
+        this(INITIAL_MIN_RATE, INITIAL_MAX_RATE, INITIAL_RATE, clock);
+    }
+
+    /**
+     * Create a controller with its own rate limits.
+     *
+     * @param minRate the lowest rate (txn/sec)
+     * @param maxRate the highest rate (txn/sec)
+     * @param initialRate the starting rate (txn/sec)
+     * @param clock the clock for the time between updates
+     */
+    public AdaptivePIDRateController(double minRate, double maxRate, double initialRate, Clock clock) {
+        if (minRate > maxRate) {
+            throw new IllegalArgumentException("minRate must not be greater than maxRate");
+        }
+        this.clock = clock;
         this.kp = INITIAL_KP;
         this.ki = INITIAL_KI;
         this.kd = INITIAL_KD;
-        this.minRate = INITIAL_MIN_RATE;
-        this.maxRate = INITIAL_MAX_RATE;
-        this.currentRate = INITIAL_RATE;
-        this.lastUpdateTime = System.currentTimeMillis();
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.currentRate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.lastUpdateTime = clock.nanoTime();
     }
 
     /**
@@ -58,11 +81,15 @@ public class AdaptivePIDRateController {
      *
      * @param targetHealth desired health value (e.g. 0.8 for 80%)
      * @param currentHealth observed quorum health in current round
-     * @return updated intake rate (tokens/sec)
+     * @return updated intake rate (tokens/sec), unchanged if no time has passed since the last update
      */
     public synchronized double update(double targetHealth, double currentHealth) {
-        long now = System.currentTimeMillis();
-        double deltaTime = (now - lastUpdateTime) / 1000.0;
+        long now = clock.nanoTime();
+        if (now <= lastUpdateTime) {
+            // rounds handled at the same instant, the integral and derivative need time to pass
+            return currentRate;
+        }
+        double deltaTime = (now - lastUpdateTime) / 1_000_000_000.0;
         lastUpdateTime = now;
 
         // Reverse the error calculation
@@ -115,6 +142,14 @@ public class AdaptivePIDRateController {
         if (recentDerivative > 0.1) { // Threshold for significant error change
             kd *= (1.0 + gainAdjustRate);
         }
+
+        // Keep the gains bounded, repeated undercorrection would otherwise grow them to infinity and the rate to NaN
+        kp = clampGain(kp, INITIAL_KP);
+        ki = clampGain(ki, INITIAL_KI);
+    }
+
+    private static double clampGain(double gain, double initialGain) {
+        return Math.max(initialGain / MAX_GAIN_FACTOR, Math.min(initialGain * MAX_GAIN_FACTOR, gain));
     }
 
     private double computeVariance(Deque<Double> values) {
@@ -1,43 +1,46 @@
 package com.hashgraph.dynamicthrottles.impl;
 
+import com.hashgraph.dynamicthrottles.time.Clock;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Adaptive Token Bucket Rate Limiter with EMA smoothing for production use.
- * Adjusts token refill rate smoothly based on queue health.
+ * Token Bucket Rate Limiter whose refill rate is set by a throttle controller.
  */
-public class AdaptiveTokenBucket {
+public class AdaptiveTokenBucket implements TokenBucket {
 
     private final long capacity;
-    private final double minRefillRate;
-    private final double maxRefillRate;
 
     private final AtomicLong tokens;
-    private final AtomicReference<Double> refillRateEMA;
+    private final AtomicReference<Double> refillRate;
 
     private volatile long lastRefillTimestamp;
 
-    private final double smoothingFactor;
+    private final Clock clock;
+
+    /**
+     * Initializes the Adaptive Token Bucket using the system clock.
+     *
+     * @param capacity        Maximum bucket capacity.
+     * @param initialRefillRate Initial refill rate (tokens/sec).
+     */
+    public AdaptiveTokenBucket(long capacity, double initialRefillRate) {
+        this(capacity, initialRefillRate, Clock.SYSTEM);
+    }
 
     /**
      * Initializes the Adaptive Token Bucket.
      *
      * @param capacity        Maximum bucket capacity.
-     * @param minRefillRate   Minimum refill rate (tokens/sec).
-     * @param maxRefillRate   Maximum refill rate (tokens/sec).
-     * @param initialRefillRate Initial refill rate.
-     * @param smoothingFactor EMA smoothing factor (0 < alpha <= 1, lower is smoother).
+     * @param initialRefillRate Initial refill rate (tokens/sec).
+     * @param clock           Clock to read refill time from.
      */
-    public AdaptiveTokenBucket(long capacity, double minRefillRate, double maxRefillRate,
-            double initialRefillRate, double smoothingFactor) {
+    public AdaptiveTokenBucket(long capacity, double initialRefillRate, Clock clock) {
+        this.clock = clock;
         this.capacity = capacity;
-        this.minRefillRate = minRefillRate;
-        this.maxRefillRate = maxRefillRate;
         this.tokens = new AtomicLong(capacity);
-        this.refillRateEMA = new AtomicReference<>(initialRefillRate);
-        this.lastRefillTimestamp = System.nanoTime();
-        this.smoothingFactor = smoothingFactor;
+        this.refillRate = new AtomicReference<>(initialRefillRate);
+        this.lastRefillTimestamp = clock.nanoTime();
     }
 
     /**
@@ -45,6 +48,7 @@ public class AdaptiveTokenBucket {
      *
      * @return true if a token was acquired, false otherwise.
      */
+    @Override
     public synchronized boolean tryAcquire() {
         refill();
         if (tokens.get() > 0) {
@@ -54,37 +58,68 @@ public class AdaptiveTokenBucket {
         return false;
     }
 
-    /**
-     * Updates the refill rate based on current queue health.
-     *
-     * @param health Current health of the queue (0.0 to 1.0).
-     */
-    public synchronized void updateHealth(double health) {
-        double targetRefillRate = minRefillRate + health * (maxRefillRate - minRefillRate);
-        refillRateEMA.updateAndGet(prevRate ->
-                prevRate + smoothingFactor * (targetRefillRate - prevRate)
-        );
+    @Override
+    public synchronized boolean tryAcquire(int n) {
+        if (n <= 0) {
+            return false;
+        }
+        refill();
+        if (tokens.get() >= n) {
+            tokens.addAndGet(-n);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized int acquireUpTo(int n) {
+        refill();
+        final int acquired = (int) Math.min(n, tokens.get());
+        if (acquired > 0) {
+            tokens.addAndGet(-acquired);
+            return acquired;
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized void refund(int n) {
+        if (n > 0) {
+            tokens.updateAndGet(current -> Math.min(capacity, current + n));
+        }
+    }
+
+    @Override
+    public synchronized void setRefillRate(double tokensPerSecond) {
+        refillRate.set(tokensPerSecond);
     }
 
     /**
-     * Refill tokens based on elapsed time and smoothed refill rate.
+     * Refill tokens based on elapsed time and refill rate. The refill time only moves on by the time the whole
+     * tokens added took to accrue, so the fraction of a token left over carries into the next refill. Once the bucket
+     * is full it moves to now, as tokens beyond capacity are lost.
      */
     private void refill() {
-        long now = System.nanoTime();
+        long now = clock.nanoTime();
         double secondsElapsed = (now - lastRefillTimestamp) / 1_000_000_000.0;
-        lastRefillTimestamp = now;
 
-        double rate = refillRateEMA.get();
+        double rate = refillRate.get();
         long newTokens = (long) (secondsElapsed * rate);
         if (newTokens > 0) {
-            tokens.updateAndGet(current -> Math.min(capacity, current + newTokens));
+            if (tokens.get() + newTokens >= capacity) {
+                tokens.set(capacity);
+                lastRefillTimestamp = now;
+            } else {
+                tokens.addAndGet(newTokens);
+                lastRefillTimestamp += (long) (newTokens * 1_000_000_000.0 / rate);
+            }
         }
     }
 
     /**
      * Get current token count (for monitoring/debugging).
      */
-    public long getTokens() {
+    public synchronized long getTokens() {
         refill();
         return tokens.get();
     }
@@ -92,10 +127,12 @@ public class AdaptiveTokenBucket {
     /**
      * Get current refill rate (for monitoring/debugging).
      */
+    @Override
     public double getRefillRatePerSecond() {
-        return refillRateEMA.get();
+        return refillRate.get();
     }
 
+    @Override
     public double getCurrentTokens() {
         return tokens.get();
     }
@@ -1,18 +1,26 @@
 package com.hashgraph.dynamicthrottles.impl;
 
+import com.hashgraph.dynamicthrottles.throttle.Admission;
+import com.hashgraph.dynamicthrottles.time.Clock;
 
 // Part 3: Shared Elastic Token Bucket
-public class ElasticTokenBucket {
-    private final int capacity;
+public class ElasticTokenBucket implements Admission {
+    private final long capacity;
     private double tokens;
     private double refillRatePerSecond;
     private long lastRefillTime;
+    private final Clock clock;
 
     public ElasticTokenBucket(int capacity, double initialRate) {
+        this(capacity, initialRate, Clock.SYSTEM);
+    }
+
+    public ElasticTokenBucket(long capacity, double initialRate, Clock clock) {
+        this.clock = clock;
         this.capacity = capacity;
         this.tokens = capacity;
         this.refillRatePerSecond = initialRate;
-        this.lastRefillTime = System.nanoTime();
+        this.lastRefillTime = clock.nanoTime();
     }
 
     public synchronized boolean tryConsume(int amount) {
@@ -24,14 +32,52 @@ public class ElasticTokenBucket {
         return false;
     }
 
+    @Override
+    public boolean tryAcquire() {
+        return tryConsume(1);
+    }
+
+    /**
+     * Attempts to acquire n tokens immediately, all or nothing, same as tryConsume(n).
+     *
+     * @param n the number of tokens to acquire
+     * @return true if all n tokens were acquired
+     */
+    @Override
+    public boolean tryAcquire(int n) {
+        return n > 0 && tryConsume(n);
+    }
+
+    /**
+     * Acquires as many whole tokens as are available up to n, in a single refill.
+     *
+     * @param n the maximum number of tokens to acquire
+     * @return the number of tokens acquired, between 0 and n
+     */
+    @Override
+    public synchronized int acquireUpTo(int n) {
+        refill();
+        final int acquired = (int) Math.max(0, Math.min(n, Math.floor(tokens)));
+        tokens -= acquired;
+        return acquired;
+    }
+
+    @Override
+    public synchronized void refund(int n) {
+        if (n > 0) {
+            tokens = Math.min(capacity, tokens + n);
+        }
+    }
+
     public synchronized void refill() {
-        long now = System.nanoTime();
+        long now = clock.nanoTime();
         double secondsElapsed = (now - lastRefillTime) / 1e9;
         double refillAmount = secondsElapsed * refillRatePerSecond;
         tokens = Math.min(capacity, tokens + refillAmount); // Enforce cap
         lastRefillTime = now;
     }
 
+    @Override
     public synchronized void setRefillRate(double newRate) {
         refillRatePerSecond = newRate;
     }
@@ -41,10 +87,12 @@ public class ElasticTokenBucket {
         return tokens;
     }
 
+    @Override
     public synchronized double getCurrentTokens() {
         return tokens;
     }
 
+    @Override
     public synchronized double getRefillRatePerSecond() {
         return refillRatePerSecond;
     }
@@ -1,60 +1,192 @@
 package com.hashgraph.dynamicthrottles.impl;
 
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.estimate.ExecutionCostEstimator;
 import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.throttle.Admission;
+import com.hashgraph.dynamicthrottles.throttle.RoundHealth;
+import com.hashgraph.dynamicthrottles.throttle.ThrottleController;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Each node's intake throttle. A {@link ThrottleController}, chosen by the config's throttleAlgorithm, sets the intake
+ * rate once per round from the round's {@link RoundHealth}, and its {@link Admission}, by default a token bucket,
+ * admits transactions at that rate.
+ * <p>
+ * With the COUNT {@link IntakeCostModel} every transaction costs one token. With TYPE or LEARNED each transaction costs
+ * its type's estimated execution cost in work nanoseconds, so the throttle targets execution capacity rather than
+ * transaction count. The bucket is then denominated in work nanoseconds, its capacity and refill rates are the
+ * configured ones multiplied by COST_TOKEN_SCALE_NANOS, the cost of the smallest transaction, so the default maximum
+ * refill rate of 15,000 is one second of work per second.
+ * <p>
+ * The node's {@link ExecutionCostEstimator} learns its execution capacity from executed rounds. With a capacity feed
+ * forward fraction set, controllers cap their rate at that fraction of the estimated capacity shared
+ * between the nodes, in transactions per second for COUNT and work nanoseconds per second otherwise, so intake is
+ * held below what the node can execute before the execute queue fills rather than after.
+ */
 public class GlobalIntakeController {
-    private static final int TOKEN_BUCKET_CAPACITY = 50_000;         // Allow up to 10,000 txns in burst
-    private static final double TOKEN_BUCKET_INITIAL_RATE = 5_000.0;  // 5,000 transactions/sec refill rate
-    private static final double TOKEN_BUCKET_MIN_RATE = 2.0;  // 5,000 transactions/sec refill rate
-    private static final double TOKEN_BUCKET_MAX_RATE = 15_000.0;  // 5,000 transactions/sec refill rate
-    private static final double TARGET_HEALTH = 0.8;              // Target health percentage for PID controller
+    /** Work nanoseconds per configured token in cost aware modes, the work of the smallest transaction */
+    public static final long COST_TOKEN_SCALE_NANOS = Transaction.MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS;
     private final QuorumHealthAggregator quorumHealthAggregator;
-    public final AdaptivePIDRateController pid;
-    //private final ElasticTokenBucket tokenBucket = new ElasticTokenBucket(TOKEN_BUCKET_CAPACITY, TOKEN_BUCKET_INITIAL_RATE);
     private final int nodeId;
     public final AtomicInteger quorumHealth = new AtomicInteger(0);
-    private final AdaptiveTokenBucket tokenBucket = new AdaptiveTokenBucket(
-            15000,    // capacity
-            2.0,      // min refill rate
-            15000.0,  // max refill rate
-            5000.0,   // initial refill rate
-            0.05      // EMA smoothing factor
-    );
+    /** Chooses the intake rate each round */
+    public final ThrottleController controller;
+    /** Admits transactions at the controller's rate */
+    private final Admission admission;
+    /** The health summary passed to the controller, refilled each round */
+    private final RoundHealth roundHealth = new RoundHealth();
+    private final Clock clock;
+    /** What each transaction is charged */
+    public final IntakeCostModel costModel;
+    /** Estimated cost of each transaction type, used by the TYPE and LEARNED cost models */
+    public final TransactionCostEstimator costEstimator;
+    /** Measured execution cost and capacity of this node */
+    public final ExecutionCostEstimator executionEstimator = new ExecutionCostEstimator();
+    /** Fraction of estimated capacity the target rate is capped at, 0 for no feed forward */
+    private final double capacityFeedForward;
+    /** Number of nodes sharing the intake, each node's share of capacity is 1 / numOfNodes */
+    private final int numOfNodes;
 
 
     public GlobalIntakeController(int nodeId) {
+        this(nodeId, SimulationConfig.DEFAULT, Clock.SYSTEM);
+    }
+
+    public GlobalIntakeController(int nodeId, SimulationConfig config, Clock clock) {
         this.nodeId = nodeId;
-        this.quorumHealthAggregator = new QuorumHealthAggregator(nodeId);
-        this.pid = new AdaptivePIDRateController();
+        this.quorumHealthAggregator = new QuorumHealthAggregator(nodeId, config.averagingWindowSize());
+        this.clock = clock;
+        this.capacityFeedForward = config.capacityFeedForward();
+        this.numOfNodes = config.numOfNodes();
+        this.costModel = config.intakeCostModel();
+        this.costEstimator = new TransactionCostEstimator(config.transactionTypeCostMicros(), COST_TOKEN_SCALE_NANOS,
+                costModel == IntakeCostModel.LEARNED ? executionEstimator : null);
+        final long scale = costModel == IntakeCostModel.COUNT ? 1 : COST_TOKEN_SCALE_NANOS;
+        this.controller = ThrottleController.create(config, scale, clock);
+        this.admission = controller.createAdmission(config, scale, clock);
     }
 
-    // Call this periodically once per round
-    public void updateGlobalRate(Round round) {
+    /**
+     * Call this once per round, as it reaches consensus, to update the intake rate.
+     *
+     * @param round the round
+     * @param oldestQueuedWaitNanos how long the oldest round still in this node's execute queue has waited, 0 if none
+     * @param queuedWorkNanos the total work of the rounds in this node's execute queue
+     */
+    public void updateGlobalRate(Round round, long oldestQueuedWaitNanos, long queuedWorkNanos) {
         // Compute the global quorum health for this round, it will be deterministic unless a node reconnects and is
         // lacking history for across round averaging. If we think it has to be deterministic, we can either use a
         // single round or store the averaging data in state.
         final double quorumHealth = quorumHealthAggregator.computeQuorumHealth(round);
         this.quorumHealth.set((int) (quorumHealth * 100)); // Convert to percentage
-//        double newRate = pid.update(TARGET_HEALTH, quorumHealth);
-//        if (nodeId==1) System.out.println("     health = " + quorumHealth+" -> " + newRate+" tps - tokens="+tokenBucket.getTokens());
-//        double newRate = Math.max(TOKEN_BUCKET_MIN_RATE,TOKEN_BUCKET_MAX_RATE * quorumHealth);
+        roundHealth.set(round, quorumHealth, clock.nanoTime(), capacityRateCeiling(),
+                Math.max(oldestQueuedWaitNanos, executionEstimator.lastQueueWaitNanos()), queuedWorkNanos,
+                executionEstimator);
+        admission.setRefillRate(controller.update(roundHealth));
+    }
+
+    /**
+     * Get the feed forward cap on the target rate, this node's share of the configured fraction of estimated capacity.
+     *
+     * @return the cap in admission tokens per second, infinite if there is no feed forward or no estimate yet
+     */
+    public double capacityRateCeiling() {
+        if (capacityFeedForward <= 0 || !executionEstimator.hasEstimate()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double capacity = costModel == IntakeCostModel.COUNT
+                ? executionEstimator.capacityTps()
+                : executionEstimator.capacityWorkNanosPerSecond();
+        return capacityFeedForward * capacity / numOfNodes;
+    }
+
+    /**
+     * Learn from a round this node has executed, called once the round's execution completes.
+     *
+     * @param round the executed round
+     * @param startNanos the time execution started
+     * @param endNanos the time execution finished
+     */
+    public void roundExecuted(Round round, long startNanos, long endNanos) {
+        executionEstimator.roundExecuted(round, startNanos, endNanos);
+    }
+
+    /**
+     * Should a transaction be accepted, charging it one token or its estimated cost depending on the cost model.
+     *
+     * @param transaction the transaction
+     * @return true if the transaction was paid for and should be accepted
+     */
+    public boolean shouldAcceptTransaction(Transaction transaction) {
+        if (costModel == IntakeCostModel.COUNT) {
+            return admission.tryAcquire();
+        }
+        return admission.tryAcquire(cost(transaction));
+    }
+
+    /**
+     * Give back what accepting a transaction was charged, when the throttle accepted it but it could not be queued.
+     *
+     * @param transaction the transaction
+     */
+    public void refund(Transaction transaction) {
+        admission.refund(costModel == IntakeCostModel.COUNT ? 1 : cost(transaction));
+    }
+
+    /**
+     * Give back what accepting transactions was charged, for transactions the throttle accepted that could not be
+     * queued after all.
+     *
+     * @param transactions the batch of transactions
+     * @param from the index of the first transaction to refund
+     * @param to the index after the last transaction to refund
+     */
+    public void refund(List<Transaction> transactions, int from, int to) {
+        if (costModel == IntakeCostModel.COUNT) {
+            admission.refund(to - from);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            admission.refund(cost(transactions.get(i)));
+        }
+    }
 
-//        tokenBucket.setRefillRate(newRate);
-        tokenBucket.updateHealth(quorumHealth);
+    /**
+     * Get the tokens a cost aware model charges for a transaction, its type's estimated cost.
+     */
+    private int cost(Transaction transaction) {
+        return (int) costEstimator.estimateNanos(transaction.type().code());
     }
 
-    public boolean shouldAcceptTransaction() {
-//        return tokenBucket.tryConsume(1);
-        return tokenBucket.tryAcquire();
+    /**
+     * Accept as many transactions from the start of a batch as the throttle allows. With the COUNT cost model this is
+     * one admission operation, cost aware models pay for each transaction in turn as costs differ.
+     *
+     * @param transactions the batch of transactions
+     * @param max the most transactions to accept
+     * @return the number of transactions from the start of the batch to accept
+     */
+    public int acceptUpTo(List<Transaction> transactions, int max) {
+        if (costModel == IntakeCostModel.COUNT) {
+            return admission.acquireUpTo(max);
+        }
+        int accepted = 0;
+        while (accepted < max && shouldAcceptTransaction(transactions.get(accepted))) {
+            accepted++;
+        }
+        return accepted;
     }
 
     public double getCurrentTokenRate() {
-        return tokenBucket.getRefillRatePerSecond();
+        return admission.getRefillRatePerSecond();
     }
 
     public double getCurrentTokenCount() {
-        return tokenBucket.getCurrentTokens();
+        return admission.getCurrentTokens();
     }
 
 }
@@ -0,0 +1,20 @@
+package com.hashgraph.dynamicthrottles.impl;
+
+/**
+ * What the intake token bucket charges for each transaction, see {@link GlobalIntakeController}.
+ */
+public enum IntakeCostModel {
+    /** One token per transaction whatever its cost, the bucket rates are in transactions per second */
+    COUNT,
+    /**
+     * The configured estimated cost of the transaction's type in work nanoseconds, the bucket rates are in work
+     * nanoseconds per second. The untyped uniform workload is all one type, charged the configured UNTYPED cost
+     * whatever percentageLargeTransactions is, so it is throttled as COUNT would. Use LEARNED for that workload.
+     */
+    TYPE,
+    /**
+     * As TYPE, but each type's estimated cost is its measured cost from the node's execution cost estimator, the
+     * configured cost until a transaction of the type has executed
+     */
+    LEARNED
+}
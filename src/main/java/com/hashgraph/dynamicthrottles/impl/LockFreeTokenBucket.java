@@ -0,0 +1,162 @@
+package com.hashgraph.dynamicthrottles.impl;
+
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free version of {@link AdaptiveTokenBucket} with the same capacity and refill rate semantics.
+ * <p>
+ * Rather than storing a token count and a last refill time that have to be updated together under a lock, the whole
+ * bucket state is a single long: the time at which the bucket was, or will be, empty. The number of tokens at any time
+ * is the time elapsed since then multiplied by the refill rate, capped at capacity. Acquiring tokens moves the empty
+ * time forward by the time it takes to refill them, so an acquire is one clock read and one compare-and-set with no
+ * separate refill step. This is the generic cell rate algorithm used by network traffic shapers.
+ * <p>
+ * Rate changes from {@link #setRefillRate(double)} rescale the empty time so the token count is preserved. An acquire
+ * racing with a rate change may use the old rate for that one acquire, which is harmless for throttling.
+ * <p>
+ * Times are kept in ticks of 1/256 of a nanosecond since the bucket was created, so the cost aware intake modes, where
+ * a token is a work nanosecond and rates reach billions of tokens per second, are not rounded to whole nanoseconds per
+ * token. A long of ticks lasts over a year.
+ */
+public class LockFreeTokenBucket implements TokenBucket {
+    /** Lowest refill rate used, avoids dividing by zero when the min refill rate is 0 */
+    private static final double MIN_RATE = 1e-3;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    /** Ticks per nanosecond, as a shift */
+    private static final int TICK_SHIFT = 8;
+    private static final double TICKS_PER_SECOND = NANOS_PER_SECOND * (1 << TICK_SHIFT);
+
+    private final long capacity;
+    private final Clock clock;
+    /** The clock time ticks are counted from */
+    private final long originNanos;
+
+    /** The time in ticks when the bucket is empty, tokens are (now - emptyTime) / ticksPerToken */
+    private final AtomicLong emptyTime = new AtomicLong();
+    /** The refill rate in tokens per second, stored as double bits */
+    private final AtomicLong refillRateBits = new AtomicLong();
+    /** The time to refill one token in ticks at the current rate */
+    private volatile double ticksPerToken;
+
+    /**
+     * Initializes the Lock-Free Token Bucket.
+     *
+     * @param capacity        Maximum bucket capacity.
+     * @param initialRefillRate Initial refill rate (tokens/sec).
+     * @param clock           Clock to read refill time from.
+     */
+    public LockFreeTokenBucket(long capacity, double initialRefillRate, Clock clock) {
+        this.capacity = capacity;
+        this.clock = clock;
+        this.originNanos = clock.nanoTime();
+        this.refillRateBits.set(Double.doubleToLongBits(initialRefillRate));
+        this.ticksPerToken = ticksPerToken(initialRefillRate);
+        // start with a full bucket, long casts saturate so very slow rates can not overflow
+        this.emptyTime.set(-(long) (capacity * ticksPerToken));
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return acquire(1, false) == 1;
+    }
+
+    @Override
+    public boolean tryAcquire(int n) {
+        return acquire(n, false) == n;
+    }
+
+    @Override
+    public int acquireUpTo(int n) {
+        return acquire(n, true);
+    }
+
+    /**
+     * Acquire up to n tokens with a single compare-and-set.
+     *
+     * @param n the number of tokens wanted
+     * @param partial if true acquire as many as are available up to n, if false all n or none
+     * @return the number of tokens acquired
+     */
+    private int acquire(int n, boolean partial) {
+        if (n <= 0) {
+            return 0;
+        }
+        final long now = ticksNow();
+        final double ticksPerToken = this.ticksPerToken;
+        final long fullTime = now - (long) (capacity * ticksPerToken);
+        while (true) {
+            final long current = emptyTime.get();
+            // tokens beyond capacity are lost, so the empty time can not be further back than a full bucket
+            final long start = Math.max(current, fullTime);
+            final int acquired = partial ? (int) Math.min(n, (now - start) / ticksPerToken) : n;
+            if (acquired <= 0) {
+                return 0;
+            }
+            final long newEmptyTime = start + Math.max(1, Math.round(acquired * ticksPerToken));
+            if (newEmptyTime > now) {
+                return 0;
+            }
+            if (emptyTime.compareAndSet(current, newEmptyTime)) {
+                return acquired;
+            }
+        }
+    }
+
+    /**
+     * Give back tokens by moving the empty time back by the time they take to refill. Acquires and token reads cap the
+     * result at a full bucket.
+     */
+    @Override
+    public void refund(int n) {
+        if (n > 0) {
+            final long refundTicks = Math.max(1, Math.round(n * ticksPerToken));
+            emptyTime.updateAndGet(current -> current - refundTicks);
+        }
+    }
+
+    @Override
+    public void setRefillRate(double tokensPerSecond) {
+        refillRateBits.set(Double.doubleToLongBits(tokensPerSecond));
+        rescale(tokensPerSecond);
+    }
+
+    /**
+     * Move to a new refill rate keeping the current token count.
+     */
+    private void rescale(double newRate) {
+        final double newTicksPerToken = ticksPerToken(newRate);
+        // rescale the empty time so the current token count stays the same at the new rate
+        final long now = ticksNow();
+        emptyTime.updateAndGet(current -> now - (long) (tokensAt(now, current, ticksPerToken) * newTicksPerToken));
+        ticksPerToken = newTicksPerToken;
+    }
+
+    @Override
+    public double getRefillRatePerSecond() {
+        return Double.longBitsToDouble(refillRateBits.get());
+    }
+
+    @Override
+    public double getCurrentTokens() {
+        return Math.floor(tokensAt(ticksNow(), emptyTime.get(), ticksPerToken));
+    }
+
+    /**
+     * Compute the number of tokens, including fractions, in the bucket at a time.
+     */
+    private double tokensAt(long now, long emptyTime, double ticksPerToken) {
+        return Math.max(0, Math.min(capacity, (now - emptyTime) / ticksPerToken));
+    }
+
+    /**
+     * Get the current time in ticks since the bucket was created.
+     */
+    private long ticksNow() {
+        return (clock.nanoTime() - originNanos) << TICK_SHIFT;
+    }
+
+    private static double ticksPerToken(double rate) {
+        return TICKS_PER_SECOND / Math.max(MIN_RATE, rate);
+    }
+}
@@ -0,0 +1,136 @@
+package com.hashgraph.dynamicthrottles.impl;
+
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.RoundSummary;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the {@link RoundSummary} for a round's events in a single pass. This runs once per round on the consensus
+ * path, the result is shared by every node. Health is accumulated in primitive arrays indexed by node id that are
+ * reused across rounds, and the 2/3 rank health is found with a partial selection rather than sorting, so the only
+ * allocation per round is the summary and its three per node arrays, sized to the nodes in the round. Those can not be
+ * reused scratch as the summary stays with its round while it waits in every node's execute queue.
+ * <p>
+ * This class is not thread-safe, each consensus instance should have its own.
+ */
+public final class RoundSummarizer {
+    /** Scratch sums of health percentages in the current round, indexed by node id */
+    private long[] healthSums = new long[16];
+    /** Scratch counts of events in the current round, indexed by node id */
+    private int[] healthCounts = new int[16];
+    /** Scratch average health of each node seen in the current round, between 0.0 and 1.0 */
+    private double[] nodeHealths = new double[16];
+    /** The highest node id seen so far, bounds the scan over the scratch arrays */
+    private int maxNodeId = 0;
+
+    /**
+     * Summarize the events of a round.
+     *
+     * @param events the round's events, in consensus order
+     * @return the summary of the round
+     */
+    public RoundSummary summarize(List<PostConsensusEvent> events) {
+        // sum up health and work per node, indexed loop as the event list is random access and this avoids an iterator
+        long totalWorkNanos = 0;
+        int transactionCount = 0;
+        for (int i = 0; i < events.size(); i++) {
+            final Event event = events.get(i).event();
+            final int nodeId = event.nodeId();
+            if (nodeId >= healthCounts.length) {
+                growScratchBuffers(nodeId + 1);
+            }
+            maxNodeId = Math.max(maxNodeId, nodeId);
+            healthSums[nodeId] += event.healthPercentage();
+            healthCounts[nodeId]++;
+            totalWorkNanos += event.getTotalWorkInNanos();
+            transactionCount += event.transactions().size();
+        }
+        int numOfNodes = 0;
+        for (int nodeId = 0; nodeId <= maxNodeId; nodeId++) {
+            if (healthCounts[nodeId] > 0) {
+                numOfNodes++;
+            }
+        }
+        // average per node in node id order, clearing the sums ready for the next round
+        final int[] nodeIds = new int[numOfNodes];
+        final double[] roundNodeHealths = new double[numOfNodes];
+        final int[] nodeEventCounts = new int[numOfNodes];
+        int index = 0;
+        for (int nodeId = 0; nodeId <= maxNodeId; nodeId++) {
+            if (healthCounts[nodeId] > 0) {
+                nodeIds[index] = nodeId;
+                nodeEventCounts[index] = healthCounts[nodeId];
+                roundNodeHealths[index] = (healthSums[nodeId] / (double) healthCounts[nodeId]) / 100d;
+                nodeHealths[index] = roundNodeHealths[index];
+                healthSums[nodeId] = 0;
+                healthCounts[nodeId] = 0;
+                index++;
+            }
+        }
+        // We need 2/3 of the nodes to be healthy, so we take the bottom 1/3 and ignore them
+        final int limit = (2 * numOfNodes) / 3;
+        // now take the minimum of the trusted nodes, it is the minimum of the top 2/3 because we do not want to allow
+        // any of the top 2/3 to become unhealthy. That is the limit'th smallest health, with a single node it is that
+        // node's health.
+        final double quorumHealth = numOfNodes == 0 ? 1.0 : select(nodeHealths, numOfNodes, Math.max(0, limit - 1));
+        return new RoundSummary(nodeIds, roundNodeHealths, nodeEventCounts, quorumHealth, totalWorkNanos,
+                transactionCount, events.size());
+    }
+
+    /**
+     * Grow the scratch buffers to hold node ids up to size - 1, only happens the first time a higher node id is seen.
+     */
+    private void growScratchBuffers(int size) {
+        final int newSize = Math.max(size, healthCounts.length * 2);
+        healthSums = Arrays.copyOf(healthSums, newSize);
+        healthCounts = Arrays.copyOf(healthCounts, newSize);
+        nodeHealths = Arrays.copyOf(nodeHealths, newSize);
+    }
+
+    /**
+     * Find the k'th smallest value in the first n entries of an array using in place quickselect, reordering those
+     * entries. O(n) on average without the cost of a full sort.
+     *
+     * @param values the values, the first n are partially reordered
+     * @param n the number of values to select from
+     * @param k the zero based rank to select
+     * @return the k'th smallest value
+     */
+    static double select(double[] values, int n, int k) {
+        int left = 0;
+        int right = n - 1;
+        while (left < right) {
+            // median of three pivot to avoid worst case on already ordered health values
+            final int mid = (left + right) >>> 1;
+            if (values[mid] < values[left]) swap(values, mid, left);
+            if (values[right] < values[left]) swap(values, right, left);
+            if (values[right] < values[mid]) swap(values, right, mid);
+            final double pivot = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(double[] values, int a, int b) {
+        final double temp = values[a];
+        values[a] = values[b];
+        values[b] = temp;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hashgraph.dynamicthrottles.impl;
+
+import com.hashgraph.dynamicthrottles.throttle.Admission;
+
+/**
+ * A token bucket admission, one token is needed per transaction accepted. Its refill rate is set directly by a throttle
+ * controller through setRefillRate().
+ */
+public interface TokenBucket extends Admission {
+    /**
+     * Get current refill rate (for monitoring/debugging).
+     */
+    double getRefillRatePerSecond();
+
+    /**
+     * Get current token count (for monitoring/debugging).
+     */
+    double getCurrentTokens();
+}
@@ -0,0 +1,11 @@
+package com.hashgraph.dynamicthrottles.impl;
+
+/**
+ * The available {@link TokenBucket} implementations.
+ */
+public enum TokenBucketType {
+    /** {@link AdaptiveTokenBucket}, the original implementation guarded by a monitor lock */
+    SYNCHRONIZED,
+    /** {@link LockFreeTokenBucket}, a single compare-and-set per acquire with no locks */
+    LOCK_FREE
+}
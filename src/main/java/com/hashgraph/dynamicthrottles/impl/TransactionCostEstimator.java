@@ -0,0 +1,66 @@
+package com.hashgraph.dynamicthrottles.impl;
+
+import com.hashgraph.dynamicthrottles.estimate.ExecutionCostEstimator;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import java.util.Arrays;
+
+/**
+ * Estimates the execution cost of a transaction from its type, before it is executed. Intake can not know a
+ * transaction's actual work, only its type, so it is charged its type's estimated cost. Costs come from a configured
+ * table or, when learning, from the measured cost of each type in the node's {@link ExecutionCostEstimator}, falling
+ * back to the configured cost until a transaction of the type has executed, so the estimates track a changing
+ * workload.
+ * <p>
+ * estimateNanos() can be called from any thread.
+ */
+public class TransactionCostEstimator {
+    /** Configured cost of each type in work nanoseconds, indexed by type code */
+    private final long[] configuredCostNanos = new long[TransactionType.count()];
+    /** Source of learned costs, null to keep the configured costs */
+    private final ExecutionCostEstimator learnedCosts;
+
+    /**
+     * Create an estimator.
+     *
+     * @param typeCostMicros the configured cost of each type, for example "CRYPTO_TRANSFER=60,SMART_CONTRACT=350",
+     *                       types not listed cost defaultCostNanos
+     * @param defaultCostNanos the configured cost of types not in typeCostMicros
+     * @param learnedCosts the estimator to read each type's measured cost from, null to keep the configured costs
+     * @throws IllegalArgumentException if typeCostMicros can not be parsed
+     */
+    public TransactionCostEstimator(String typeCostMicros, long defaultCostNanos, ExecutionCostEstimator learnedCosts) {
+        this.learnedCosts = learnedCosts;
+        Arrays.fill(configuredCostNanos, defaultCostNanos);
+        for (String entry : typeCostMicros.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            final int equals = entry.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected <type>=<micros>: " + entry);
+            }
+            final TransactionType type = TransactionType.valueOf(entry.substring(0, equals).strip().toUpperCase());
+            final double micros = Double.parseDouble(entry.substring(equals + 1).strip());
+            if (micros <= 0) {
+                throw new IllegalArgumentException("Transaction type costs must be positive: " + entry);
+            }
+            configuredCostNanos[type.code()] = Math.round(micros * 1000);
+        }
+    }
+
+    /**
+     * Get the estimated cost of a transaction type.
+     *
+     * @param typeCode the transaction type code
+     * @return the estimated cost in work nanoseconds, at least 1
+     */
+    public long estimateNanos(byte typeCode) {
+        if (learnedCosts != null) {
+            final double learnedNanos = learnedCosts.transactionCostNanos(typeCode);
+            if (!Double.isNaN(learnedNanos)) {
+                return Math.max(1, Math.round(learnedNanos));
+            }
+        }
+        return configuredCostNanos[typeCode];
+    }
+}
@@ -0,0 +1,55 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import java.util.Random;
+
+/**
+ * The times one open loop client submits new transactions at. Arrival times are on the scheduler clock in nanoseconds.
+ * <p>
+ * Implementations are not thread-safe, each client has its own.
+ */
+public interface ArrivalProcess {
+    /**
+     * Get the time of the arrival after a previous one, the first call is passed the time the client starts.
+     *
+     * @param previousArrivalNanos the time of the previous arrival, or the start time
+     * @return the time of the next arrival, never before the previous one, Long.MAX_VALUE if there are no more
+     */
+    long nextArrivalNanos(long previousArrivalNanos);
+
+    /**
+     * Create the arrival process selected by a simulation config for one client. The config's offered TPS is shared
+     * evenly between its load clients.
+     *
+     * @param config the simulation settings
+     * @param trace the arrival times loaded from the config's trace file, only used by TRACE
+     * @param clientIndex the client's index, 0 to loadClients - 1
+     * @param startNanos the time all clients start, the phase origin of ON_OFF bursts
+     * @param random the client's random
+     * @return the new arrival process
+     */
+    static ArrivalProcess create(SimulationConfig config, ArrivalTrace trace, int clientIndex, long startNanos,
+            Random random) {
+        final double ratePerClient = config.offeredTps() / config.loadClients();
+        return switch (config.arrivalProcess()) {
+            case CONSTANT -> new ConstantArrivals(ratePerClient, random);
+            case POISSON -> new PoissonArrivals(ratePerClient, random);
+            case ON_OFF -> new OnOffArrivals(ratePerClient, config.burstPeriodMillis() * 1_000_000,
+                    config.burstDutyCycle(), startNanos, random);
+            case TRACE -> new TraceArrivals(trace, config.offeredTps(), clientIndex, config.loadClients(), startNanos);
+        };
+    }
+
+    /**
+     * Get a random exponentially distributed gap, the time between Poisson arrivals.
+     *
+     * @param ratePerSecond the mean arrival rate
+     * @param random the random to draw from
+     * @return the gap in nanoseconds
+     */
+    static double exponentialGapNanos(double ratePerSecond, Random random) {
+        return -Math.log(1 - random.nextDouble()) * NANOS_PER_SECOND / ratePerSecond;
+    }
+}
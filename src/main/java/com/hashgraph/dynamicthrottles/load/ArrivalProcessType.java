@@ -0,0 +1,18 @@
+package com.hashgraph.dynamicthrottles.load;
+
+/**
+ * The available {@link ArrivalProcess} implementations, how each open loop client spaces its transactions.
+ */
+public enum ArrivalProcessType {
+    /** {@link ConstantArrivals}, evenly spaced at the client's rate with a random phase per client */
+    CONSTANT,
+    /** {@link PoissonArrivals}, exponentially distributed gaps, independent arrivals at the client's mean rate */
+    POISSON,
+    /**
+     * {@link OnOffArrivals}, Poisson arrivals only during the on part of each burst period, all clients in phase, at a
+     * raised rate so the mean rate is unchanged
+     */
+    ON_OFF,
+    /** {@link TraceArrivals}, arrival times replayed from a trace file, scaled to the offered rate and looped */
+    TRACE
+}
@@ -0,0 +1,80 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Arrival times loaded from a trace file, shared read only by all clients replaying it.
+ * <p>
+ * The file is text with one arrival time in seconds per line, in increasing order, for example exported from a
+ * production transaction log. Blank lines and lines starting with # are ignored. Times are made relative to the first
+ * arrival.
+ *
+ * @param arrivalNanos the arrival times in nanoseconds from the first arrival, which is 0
+ * @param durationNanos the length of the trace, the last arrival plus the mean gap, so looping keeps the mean rate
+ */
+public record ArrivalTrace(long[] arrivalNanos, long durationNanos) {
+    public ArrivalTrace {
+        if (arrivalNanos == null || arrivalNanos.length == 0) {
+            throw new IllegalArgumentException("arrivalNanos must be non-empty");
+        }
+        if (durationNanos <= 0) {
+            throw new IllegalArgumentException("durationNanos must be positive");
+        }
+    }
+
+    /**
+     * Load a trace file.
+     *
+     * @param file the trace file
+     * @return the loaded trace
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the file has no arrivals, a line is not a number or times go backwards
+     */
+    public static ArrivalTrace load(Path file) throws IOException {
+        long[] arrivals = new long[1024];
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final long time = Math.round(Double.parseDouble(line) * NANOS_PER_SECOND);
+                if (count > 0 && time < arrivals[count - 1]) {
+                    throw new IllegalArgumentException("Trace arrival times must be in increasing order: " + line);
+                }
+                if (count == arrivals.length) {
+                    arrivals = Arrays.copyOf(arrivals, count * 2);
+                }
+                arrivals[count++] = time;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Trace file has no arrivals: " + file);
+        }
+        final long first = arrivals[0];
+        for (int i = 0; i < count; i++) {
+            arrivals[i] -= first;
+        }
+        final long last = arrivals[count - 1];
+        // a single arrival, or all at the same time, loops once a second
+        final long durationNanos = last == 0 ? NANOS_PER_SECOND : last + last / Math.max(1, count - 1);
+        return new ArrivalTrace(Arrays.copyOf(arrivals, count), durationNanos);
+    }
+
+    /**
+     * Get the trace's mean arrival rate.
+     *
+     * @return arrivals per second
+     */
+    public double ratePerSecond() {
+        return arrivalNanos.length * (double) NANOS_PER_SECOND / durationNanos;
+    }
+}
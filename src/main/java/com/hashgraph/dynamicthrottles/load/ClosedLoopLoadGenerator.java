@@ -0,0 +1,99 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.LoadGenerator;
+import com.hashgraph.dynamicthrottles.Node;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.lang.System.Logger;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The original load generator, a single closed loop client. It runs in a separate thread and continuously generates
+ * transactions, sending them as fast as the nodes can accept them. When one is rejected it waits a second and retries on
+ * another random node, sending nothing else until it is accepted.
+ * <p>
+ * In virtual time "as fast as the nodes can accept" has no meaning, so transactions are sent in bursts of up to
+ * VIRTUAL_TIME_MAX_TRANSACTIONS_PER_TICK every VIRTUAL_TIME_TICK_NANOS, an offered load well above what the nodes
+ * accept.
+ */
+public class ClosedLoopLoadGenerator extends LoadGenerator {
+    /** Time to wait before retrying a rejected transaction */
+    private static final long RETRY_DELAY_NANOS = NANOS_PER_SECOND;
+    /** Interval between bursts of transactions in virtual time */
+    private static final long VIRTUAL_TIME_TICK_NANOS = 1_000_000; // 1ms
+    /** Maximum transactions sent per burst in virtual time, 100 per 1ms is 100K TPS offered */
+    private static final int VIRTUAL_TIME_MAX_TRANSACTIONS_PER_TICK = 100;
+    private final Logger logger = System.getLogger(ClosedLoopLoadGenerator.class.getName());
+    private final Random random;
+    /** Separate random for conflict keys, so adding keys did not change the work and node sequence for a seed */
+    private final Random keyRandom;
+    /** Transaction waiting to be retried in virtual time, only used by the simulation thread */
+    private Transaction pendingTransaction = null;
+
+    /**
+     * Create a load generator, it does not send anything until start() is called.
+     *
+     * @param scheduler the scheduler to generate load on
+     * @param nodes the nodes to send transactions to
+     * @param seed seed for the random transaction work, conflict keys and node choice
+     * @param conflictKeySpace the number of distinct conflict keys to spread transactions over
+     * @param workloadProfile the typed workload, null for the legacy uniform workload
+     */
+    public ClosedLoopLoadGenerator(Scheduler scheduler, List<Node> nodes, long seed, int conflictKeySpace,
+            WorkloadProfile workloadProfile) {
+        super(scheduler, nodes, conflictKeySpace, workloadProfile);
+        this.random = new Random(seed);
+        this.keyRandom = new Random(~seed);
+    }
+
+    @Override
+    protected void startGenerating(long startNanos) {
+        if (!scheduler.isRealTime()) {
+            scheduler.schedule(this::generateInVirtualTime, START_DELAY_NANOS);
+            return;
+        }
+        Thread loadGeneratorThread = new Thread(() -> {
+            // wait 5 seconds before starting to generate load
+            LockSupport.parkNanos(START_DELAY_NANOS);
+            while (true) {
+                final Transaction transaction = createTransaction(random, keyRandom);
+                // pick a random node and try to send the transaction
+                boolean accepted = sendToRandomNode(random, transaction);
+                // if the node is busy, wait a bit and picking another random node
+                while (!accepted) {
+                    // if the node is busy, wait a bit and try again
+                    LockSupport.parkNanos(RETRY_DELAY_NANOS);
+                    // pick another random node and try again
+                    accepted = sendToRandomNode(random, transaction);
+                }
+            }
+        });
+        loadGeneratorThread.setUncaughtExceptionHandler((t, e) ->
+                logger.log(Logger.Level.ERROR, "Load generator thread interrupted: " + e.getMessage(), e));
+        loadGeneratorThread.setDaemon(true);
+        loadGeneratorThread.start();
+    }
+
+    /**
+     * Virtual time equivalent of the load generator thread loop. Sends a burst of transactions, if one is rejected it
+     * is retried a second later and nothing else is sent until it is accepted.
+     */
+    private void generateInVirtualTime() {
+        for (int i = 0; i < VIRTUAL_TIME_MAX_TRANSACTIONS_PER_TICK; i++) {
+            final Transaction transaction = pendingTransaction != null
+                    ? pendingTransaction
+                    : createTransaction(random, keyRandom);
+            if (!sendToRandomNode(random, transaction)) {
+                pendingTransaction = transaction;
+                scheduler.schedule(this::generateInVirtualTime, RETRY_DELAY_NANOS);
+                return;
+            }
+            pendingTransaction = null;
+        }
+        scheduler.schedule(this::generateInVirtualTime, VIRTUAL_TIME_TICK_NANOS);
+    }
+}
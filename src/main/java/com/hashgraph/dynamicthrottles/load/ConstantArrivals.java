@@ -0,0 +1,35 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import java.util.Random;
+
+/**
+ * Evenly spaced arrivals. Each client starts at a random phase within the first period so many clients together offer
+ * a smooth load rather than synchronized bursts.
+ */
+public class ConstantArrivals implements ArrivalProcess {
+    private final double periodNanos;
+    private final Random random;
+    /** The exact time of the last arrival, kept as a double so rounding does not drift the rate */
+    private double lastArrivalNanos = Double.NaN;
+
+    /**
+     * @param ratePerSecond the arrival rate
+     * @param random the random for the starting phase
+     */
+    public ConstantArrivals(double ratePerSecond, Random random) {
+        this.periodNanos = NANOS_PER_SECOND / ratePerSecond;
+        this.random = random;
+    }
+
+    @Override
+    public long nextArrivalNanos(long previousArrivalNanos) {
+        if (Double.isNaN(lastArrivalNanos)) {
+            lastArrivalNanos = previousArrivalNanos + random.nextDouble() * periodNanos;
+        } else {
+            lastArrivalNanos += periodNanos;
+        }
+        return (long) lastArrivalNanos;
+    }
+}
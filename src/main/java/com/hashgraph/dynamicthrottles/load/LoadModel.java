@@ -0,0 +1,17 @@
+package com.hashgraph.dynamicthrottles.load;
+
+/**
+ * How the load generator offers transactions to the nodes.
+ */
+public enum LoadModel {
+    /**
+     * One client sending as fast as the nodes accept, waiting a second and retrying on rejection with nothing else sent
+     * meanwhile, so offered load falls as soon as the throttle rejects
+     */
+    CLOSED_LOOP,
+    /**
+     * Many clients sending at an offered rate set by an arrival process regardless of rejections, with retries on
+     * their own backoff, so the throttle sees true overload
+     */
+    OPEN_LOOP
+}
@@ -0,0 +1,49 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import java.util.Random;
+
+/**
+ * Bursty arrivals. Each period starts with an on window of dutyCycle * period in which arrivals are Poisson at
+ * rate / dutyCycle, nothing arrives for the rest of the period, so the mean rate is unchanged. All clients share the
+ * same period origin so their bursts line up, the whole offered load arrives in the on windows.
+ */
+public class OnOffArrivals implements ArrivalProcess {
+    private final double onRatePerSecond;
+    private final double periodNanos;
+    private final double onNanos;
+    private final long originNanos;
+    private final Random random;
+    /** The exact time of the last arrival, kept as a double so rounding does not drift the rate */
+    private double lastArrivalNanos = Double.NaN;
+
+    /**
+     * @param ratePerSecond the mean arrival rate over a whole period
+     * @param periodNanos the burst period
+     * @param dutyCycle the fraction of each period that is on, 0 &lt; dutyCycle &lt;= 1
+     * @param originNanos the time the first period starts
+     * @param random the random for the gaps
+     */
+    public OnOffArrivals(double ratePerSecond, long periodNanos, double dutyCycle, long originNanos, Random random) {
+        this.onRatePerSecond = ratePerSecond / dutyCycle;
+        this.periodNanos = periodNanos;
+        this.onNanos = periodNanos * dutyCycle;
+        this.originNanos = originNanos;
+        this.random = random;
+    }
+
+    @Override
+    public long nextArrivalNanos(long previousArrivalNanos) {
+        if (Double.isNaN(lastArrivalNanos)) {
+            lastArrivalNanos = previousArrivalNanos;
+        }
+        double next = lastArrivalNanos + ArrivalProcess.exponentialGapNanos(onRatePerSecond, random);
+        // time only passes for the process during on windows, so carry any overrun into the next window
+        double periodStart = originNanos + Math.floor((lastArrivalNanos - originNanos) / periodNanos) * periodNanos;
+        while (next - periodStart >= onNanos) {
+            next += periodNanos - onNanos;
+            periodStart += periodNanos;
+        }
+        lastArrivalNanos = next;
+        return (long) next;
+    }
+}
@@ -0,0 +1,183 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import com.hashgraph.dynamicthrottles.LoadGenerator;
+import com.hashgraph.dynamicthrottles.Node;
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.metrics.Counter;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Open loop load generator, many independent clients each submitting transactions at the times set by its
+ * {@link ArrivalProcess} whether or not earlier ones were accepted. Together they offer config.offeredTps() transactions
+ * per second, so unlike the closed loop generator the offered load does not back off when the throttle rejects, which
+ * is how a real network sees overload. Each client retries its own rejected transactions on its {@link RetryPolicy}
+ * alongside new arrivals, retries add to the offered load.
+ * <p>
+ * In virtual time each client is a task rescheduling itself for its next arrival or retry. In real time each client is
+ * a thread from the scheduler's thread builder, so virtual threads with the VIRTUAL thread model, parking until its
+ * next arrival or retry. A client that falls behind in real time submits everything that is due straight away.
+ */
+public class OpenLoopLoadGenerator extends LoadGenerator {
+    /** Metric names of the retry and dropped transaction counters */
+    public static final String RETRIES_METRIC = "loadGenerator.retries";
+    public static final String DROPPED_METRIC = "loadGenerator.dropped";
+    /** Retry submissions of rejected transactions */
+    public final Counter retries = new Counter();
+    /** Transactions given up on after their last retry was rejected */
+    public final Counter dropped = new Counter();
+    private final Logger logger = System.getLogger(OpenLoopLoadGenerator.class.getName());
+    private final SimulationConfig config;
+    private final RetryPolicy retryPolicy;
+    private final ArrivalTrace trace;
+
+    /**
+     * Create a load generator, it does not send anything until start() is called.
+     *
+     * @param config the simulation settings, the load clients, offered TPS, arrival process and retry policy
+     * @param scheduler the scheduler to generate load on
+     * @param nodes the nodes to send transactions to
+     * @param workloadProfile the typed workload, null for the legacy uniform workload
+     * @throws IllegalArgumentException if the arrival process is TRACE and no trace file is set
+     * @throws UncheckedIOException if the trace file can not be read
+     */
+    public OpenLoopLoadGenerator(SimulationConfig config, Scheduler scheduler, List<Node> nodes,
+            WorkloadProfile workloadProfile) {
+        super(scheduler, nodes, config.conflictKeySpace(), workloadProfile);
+        this.config = config;
+        this.retryPolicy = new RetryPolicy(config.retryPolicy(), config.retryBaseMillis() * 1_000_000,
+                config.maxRetries());
+        if (config.arrivalProcess() == ArrivalProcessType.TRACE) {
+            if (config.traceFile().isEmpty()) {
+                throw new IllegalArgumentException("traceFile must be set for the TRACE arrival process");
+            }
+            try {
+                this.trace = ArrivalTrace.load(Path.of(config.traceFile()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            this.trace = null;
+        }
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        super.registerMetrics(registry);
+        registry.register(RETRIES_METRIC, retries);
+        registry.register(DROPPED_METRIC, dropped);
+    }
+
+    @Override
+    protected void startGenerating(long startNanos) {
+        final List<Client> clients = IntStream.range(0, config.loadClients())
+                .mapToObj(i -> new Client(i, startNanos))
+                .toList();
+        for (Client client : clients) {
+            if (scheduler.isRealTime()) {
+                scheduler.threadBuilder()
+                        .name("load-client-" + client.index)
+                        .uncaughtExceptionHandler((t, e) ->
+                                logger.log(Logger.Level.ERROR, "Load client failed: " + e.getMessage(), e))
+                        .start(client::runInRealTime);
+            } else {
+                scheduler.schedule(client::runInVirtualTime, client.nextWakeNanos - scheduler.clock().nanoTime());
+            }
+        }
+    }
+
+    /**
+     * A rejected transaction waiting to be retried.
+     *
+     * @param retryNanos the time to retry at
+     * @param transaction the transaction
+     * @param attempt the retry attempt, 1 for the first retry
+     */
+    private record Retry(long retryNanos, Transaction transaction, int attempt) {}
+
+    /**
+     * One simulated client, only ever run by one thread at a time.
+     */
+    private class Client {
+        private final int index;
+        private final Random random;
+        /** Separate random for conflict keys, as with the closed loop generator */
+        private final Random keyRandom;
+        private final ArrivalProcess arrivals;
+        private final PriorityQueue<Retry> retryQueue = new PriorityQueue<>(Comparator.comparingLong(Retry::retryNanos));
+        private long nextArrivalNanos;
+        private long nextWakeNanos;
+
+        Client(int index, long startNanos) {
+            this.index = index;
+            this.random = new Random(config.seed() + index);
+            this.keyRandom = new Random(~(config.seed() + index));
+            this.arrivals = ArrivalProcess.create(config, trace, index, startNanos, random);
+            this.nextArrivalNanos = arrivals.nextArrivalNanos(startNanos);
+            this.nextWakeNanos = nextArrivalNanos;
+        }
+
+        /**
+         * Submit every new arrival and retry that is due.
+         *
+         * @param nowNanos the current time
+         * @return the time the next arrival or retry is due
+         */
+        private long runDue(long nowNanos) {
+            while (nextArrivalNanos <= nowNanos) {
+                submit(createTransaction(random, keyRandom), 0, nowNanos);
+                nextArrivalNanos = arrivals.nextArrivalNanos(nextArrivalNanos);
+            }
+            while (!retryQueue.isEmpty() && retryQueue.peek().retryNanos() <= nowNanos) {
+                final Retry retry = retryQueue.poll();
+                retries.increment();
+                submit(retry.transaction(), retry.attempt(), nowNanos);
+            }
+            return retryQueue.isEmpty() ? nextArrivalNanos : Math.min(nextArrivalNanos, retryQueue.peek().retryNanos());
+        }
+
+        /**
+         * Send a transaction to a random node, queueing a retry or dropping it if rejected.
+         */
+        private void submit(Transaction transaction, int attempt, long nowNanos) {
+            if (!sendToRandomNode(random, transaction)) {
+                final long delayNanos = retryPolicy.retryDelayNanos(attempt + 1, random);
+                if (delayNanos < 0) {
+                    dropped.increment();
+                } else {
+                    retryQueue.add(new Retry(nowNanos + delayNanos, transaction, attempt + 1));
+                }
+            }
+        }
+
+        private void runInVirtualTime() {
+            final long nowNanos = scheduler.clock().nanoTime();
+            nextWakeNanos = runDue(nowNanos);
+            if (nextWakeNanos != Long.MAX_VALUE) {
+                scheduler.schedule(this::runInVirtualTime, nextWakeNanos - nowNanos);
+            }
+        }
+
+        private void runInRealTime() {
+            while (nextWakeNanos != Long.MAX_VALUE) {
+                final long sleepNanos = nextWakeNanos - scheduler.clock().nanoTime();
+                if (sleepNanos > 0) {
+                    LockSupport.parkNanos(sleepNanos);
+                    continue;
+                }
+                nextWakeNanos = runDue(scheduler.clock().nanoTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import java.util.Random;
+
+/**
+ * Poisson arrivals, independent of each other with exponentially distributed gaps, the classic model of many
+ * independent users.
+ */
+public class PoissonArrivals implements ArrivalProcess {
+    private final double ratePerSecond;
+    private final Random random;
+    /** The exact time of the last arrival, kept as a double so rounding does not drift the rate */
+    private double lastArrivalNanos = Double.NaN;
+
+    /**
+     * @param ratePerSecond the mean arrival rate
+     * @param random the random for the gaps
+     */
+    public PoissonArrivals(double ratePerSecond, Random random) {
+        this.ratePerSecond = ratePerSecond;
+        this.random = random;
+    }
+
+    @Override
+    public long nextArrivalNanos(long previousArrivalNanos) {
+        if (Double.isNaN(lastArrivalNanos)) {
+            lastArrivalNanos = previousArrivalNanos;
+        }
+        lastArrivalNanos += ArrivalProcess.exponentialGapNanos(ratePerSecond, random);
+        return (long) lastArrivalNanos;
+    }
+}
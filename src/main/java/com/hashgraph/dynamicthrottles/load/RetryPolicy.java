@@ -0,0 +1,43 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import java.util.Random;
+
+/**
+ * When an open loop client retries a rejected transaction, and when it gives up.
+ *
+ * @param type how the delay grows with each attempt
+ * @param baseDelayNanos the delay before the first retry
+ * @param maxRetries the number of retries before the transaction is dropped
+ */
+public record RetryPolicy(RetryPolicyType type, long baseDelayNanos, int maxRetries) {
+    /** Cap on the exponential backoff doubling, 2^20 times the base delay */
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    public RetryPolicy {
+        if (type == null) {
+            throw new IllegalArgumentException("type must be non-null");
+        }
+        if (baseDelayNanos < 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("baseDelayNanos and maxRetries must be non-negative");
+        }
+    }
+
+    /**
+     * Get the delay before a retry.
+     *
+     * @param attempt the retry attempt, 1 for the first retry
+     * @param random the client's random for jitter
+     * @return the delay in nanoseconds, or -1 to give up and drop the transaction
+     */
+    public long retryDelayNanos(int attempt, Random random) {
+        if (attempt > maxRetries) {
+            return -1;
+        }
+        return switch (type) {
+            case NONE -> -1;
+            case FIXED -> baseDelayNanos;
+            case EXPONENTIAL -> (long) ((baseDelayNanos << Math.min(attempt - 1, MAX_BACKOFF_SHIFT))
+                    * (0.5 + random.nextDouble()));
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.hashgraph.dynamicthrottles.load;
+
+/**
+ * How an open loop client retries a rejected transaction, see {@link RetryPolicy}.
+ */
+public enum RetryPolicyType {
+    /** Never retry, a rejected transaction is dropped */
+    NONE,
+    /** Retry after the base delay every time */
+    FIXED,
+    /** Retry after the base delay doubled for each attempt, with +/-50% random jitter so clients do not retry in step */
+    EXPONENTIAL
+}
@@ -0,0 +1,39 @@
+package com.hashgraph.dynamicthrottles.load;
+
+/**
+ * Arrivals replayed from a trace. The trace is time scaled so its mean rate is the offered TPS, keeping its shape, and
+ * looped when it runs out. The clients deal the trace's arrivals between them, client i taking arrivals i, i + clients,
+ * i + 2 * clients and so on, so together they replay the whole trace.
+ */
+public class TraceArrivals implements ArrivalProcess {
+    private final ArrivalTrace trace;
+    private final double scale;
+    private final int clients;
+    private final long startNanos;
+    /** Index of the next arrival into the trace looped end to end */
+    private long nextIndex;
+
+    /**
+     * @param trace the trace to replay
+     * @param offeredTps the mean rate of all clients together
+     * @param clientIndex this client's index
+     * @param clients the number of clients sharing the trace
+     * @param startNanos the time the trace starts
+     */
+    public TraceArrivals(ArrivalTrace trace, double offeredTps, int clientIndex, int clients, long startNanos) {
+        this.trace = trace;
+        this.scale = trace.ratePerSecond() / offeredTps;
+        this.clients = clients;
+        this.startNanos = startNanos;
+        this.nextIndex = clientIndex;
+    }
+
+    @Override
+    public long nextArrivalNanos(long previousArrivalNanos) {
+        final int length = trace.arrivalNanos().length;
+        final long loop = nextIndex / length;
+        final long traceNanos = loop * trace.durationNanos() + trace.arrivalNanos()[(int) (nextIndex % length)];
+        nextIndex += clients;
+        return startNanos + (long) (traceNanos * scale);
+    }
+}
@@ -0,0 +1,124 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A random distribution of transaction work. Samples are clamped to 1ns to Transaction.MAX_AMOUNT_OF_WORK_IN_NANOS, so
+ * a heavy tail is truncated at the largest transaction the simulator allows.
+ */
+public sealed interface WorkDistribution {
+    /**
+     * Draw a random amount of work.
+     *
+     * @param random the random to draw from
+     * @return the work in nanoseconds
+     */
+    int sampleWorkNanos(Random random);
+
+    /**
+     * Lognormal work, most transactions near the median with a moderate right skew.
+     *
+     * @param medianNanos the median work
+     * @param sigma the standard deviation of the log of the work
+     */
+    record Lognormal(double medianNanos, double sigma) implements WorkDistribution {
+        public Lognormal {
+            if (medianNanos <= 0 || sigma < 0) {
+                throw new IllegalArgumentException("median must be positive and sigma non-negative");
+            }
+        }
+
+        @Override
+        public int sampleWorkNanos(Random random) {
+            return clamp(medianNanos * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    /**
+     * Bimodal work, a mix of two lognormal modes, for a type whose cost depends on a hidden branch like a cache miss or
+     * a first time association.
+     *
+     * @param lowMedianNanos the median work of the common mode
+     * @param highMedianNanos the median work of the rare mode
+     * @param highFraction the fraction of transactions in the high mode
+     * @param sigma the standard deviation of the log of the work within each mode
+     */
+    record Bimodal(double lowMedianNanos, double highMedianNanos, double highFraction, double sigma)
+            implements WorkDistribution {
+        public Bimodal {
+            if (lowMedianNanos <= 0 || highMedianNanos <= 0 || sigma < 0) {
+                throw new IllegalArgumentException("medians must be positive and sigma non-negative");
+            }
+            if (highFraction < 0 || highFraction > 1) {
+                throw new IllegalArgumentException("highFraction must be in [0, 1]");
+            }
+        }
+
+        @Override
+        public int sampleWorkNanos(Random random) {
+            final double median = random.nextDouble() < highFraction ? highMedianNanos : lowMedianNanos;
+            return clamp(median * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    /**
+     * Heavy-tailed Pareto work, most transactions near the minimum but a few orders of magnitude larger, like smart
+     * contract calls. Alpha at or below 2 has infinite variance, at or below 1 infinite mean, before truncation.
+     *
+     * @param minNanos the minimum work, the scale
+     * @param alpha the tail index, lower is heavier
+     */
+    record Pareto(double minNanos, double alpha) implements WorkDistribution {
+        public Pareto {
+            if (minNanos <= 0 || alpha <= 0) {
+                throw new IllegalArgumentException("min and alpha must be positive");
+            }
+        }
+
+        @Override
+        public int sampleWorkNanos(Random random) {
+            return clamp(minNanos / Math.pow(1 - random.nextDouble(), 1 / alpha));
+        }
+    }
+
+    /**
+     * Create a distribution from its profile file name and parameters, times in microseconds:
+     * <ul>
+     *     <li>lognormal median=&lt;us&gt; sigma=&lt;s&gt;</li>
+     *     <li>bimodal low=&lt;us&gt; high=&lt;us&gt; highFraction=&lt;f&gt; sigma=&lt;s&gt;</li>
+     *     <li>pareto min=&lt;us&gt; alpha=&lt;a&gt;</li>
+     * </ul>
+     *
+     * @param name the distribution name
+     * @param parameters the parameter values by name
+     * @return the new distribution
+     * @throws IllegalArgumentException if the name is unknown or a parameter is missing or invalid
+     */
+    static WorkDistribution create(String name, Map<String, Double> parameters) {
+        return switch (name.toLowerCase()) {
+            case "lognormal" -> new Lognormal(micros(parameters, "median"), required(parameters, "sigma"));
+            case "bimodal" -> new Bimodal(micros(parameters, "low"), micros(parameters, "high"),
+                    required(parameters, "highFraction"), required(parameters, "sigma"));
+            case "pareto" -> new Pareto(micros(parameters, "min"), required(parameters, "alpha"));
+            default -> throw new IllegalArgumentException("Unknown work distribution: " + name);
+        };
+    }
+
+    private static double micros(Map<String, Double> parameters, String name) {
+        return required(parameters, name) * 1000;
+    }
+
+    private static double required(Map<String, Double> parameters, String name) {
+        final Double value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing work distribution parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int clamp(double workNanos) {
+        return (int) Math.max(1, Math.min(Transaction.MAX_AMOUNT_OF_WORK_IN_NANOS, Math.round(workNanos)));
+    }
+}
@@ -0,0 +1,209 @@
+package com.hashgraph.dynamicthrottles.load;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A declarative workload, the transaction types generated, each type's work distribution, and a timeline of the mix of
+ * types. Profiles are text, one directive per line, blank lines and # comments ignored, times in microseconds:
+ * <pre>
+ * work CRYPTO_TRANSFER lognormal median=60 sigma=0.25
+ * work TOKEN_MINT bimodal low=100 high=400 highFraction=0.2 sigma=0.15
+ * work SMART_CONTRACT pareto min=120 alpha=1.3
+ * mix 0 CRYPTO_TRANSFER=0.8 TOKEN_MINT=0.15 SMART_CONTRACT=0.05
+ * mix 60 CRYPTO_TRANSFER=0.4 TOKEN_MINT=0.1 SMART_CONTRACT=0.5
+ * </pre>
+ * A mix line sets the relative weights of the types from that many seconds after load starts until the next mix line,
+ * types it does not name have weight 0. With no mix lines every type has equal weight.
+ * <p>
+ * Immutable and thread-safe, each caller passes its own random.
+ */
+public final class WorkloadProfile {
+    /** The built in profiles, by name */
+    private static final Map<String, String> BUILT_IN = Map.of(
+            "mainnet", """
+                    # mostly cheap transfers with a few contract calls
+                    work CRYPTO_TRANSFER lognormal median=60 sigma=0.25
+                    work TOKEN_MINT bimodal low=100 high=400 highFraction=0.2 sigma=0.15
+                    work SMART_CONTRACT pareto min=120 alpha=1.3
+                    mix 0 CRYPTO_TRANSFER=0.8 TOKEN_MINT=0.15 SMART_CONTRACT=0.05
+                    """,
+            "contract_surge", """
+                    # the mainnet mix with a minute long surge of heavy tailed contract calls from 60s
+                    work CRYPTO_TRANSFER lognormal median=60 sigma=0.25
+                    work TOKEN_MINT bimodal low=100 high=400 highFraction=0.2 sigma=0.15
+                    work SMART_CONTRACT pareto min=120 alpha=1.3
+                    mix 0 CRYPTO_TRANSFER=0.8 TOKEN_MINT=0.15 SMART_CONTRACT=0.05
+                    mix 60 CRYPTO_TRANSFER=0.4 TOKEN_MINT=0.1 SMART_CONTRACT=0.5
+                    mix 120 CRYPTO_TRANSFER=0.8 TOKEN_MINT=0.15 SMART_CONTRACT=0.05
+                    """);
+    /** Work distribution of each type, indexed by type code, null for types not generated */
+    private final WorkDistribution[] distributions;
+    /** Start time of each mix step in nanoseconds after load starts, increasing */
+    private final long[] stepStartNanos;
+    /** Cumulative weight of each type code for each mix step, the last entry of each is 1 */
+    private final double[][] stepCumulativeWeights;
+
+    private WorkloadProfile(WorkDistribution[] distributions, long[] stepStartNanos, double[][] stepCumulativeWeights) {
+        this.distributions = distributions;
+        this.stepStartNanos = stepStartNanos;
+        this.stepCumulativeWeights = stepCumulativeWeights;
+    }
+
+    /**
+     * Get a profile by built in name or file path.
+     *
+     * @param nameOrFile a built in profile name, mainnet or contract_surge, or a profile file
+     * @return the profile, or null for an empty name, the legacy uniform workload
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the profile is invalid
+     */
+    public static WorkloadProfile create(String nameOrFile) throws IOException {
+        if (nameOrFile.isEmpty()) {
+            return null;
+        }
+        final String builtIn = BUILT_IN.get(nameOrFile.toLowerCase());
+        return parse(builtIn != null ? builtIn : Files.readString(Path.of(nameOrFile)));
+    }
+
+    /**
+     * Parse a profile.
+     *
+     * @param text the profile text
+     * @return the profile
+     * @throws IllegalArgumentException if the profile is invalid
+     */
+    public static WorkloadProfile parse(String text) {
+        final WorkDistribution[] distributions = new WorkDistribution[TransactionType.count()];
+        final List<Long> starts = new ArrayList<>();
+        final List<double[]> weights = new ArrayList<>();
+        for (String rawLine : text.split("\n")) {
+            final String line = rawLine.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] tokens = line.split("\\s+");
+            switch (tokens[0]) {
+                case "work" -> {
+                    if (tokens.length < 3) {
+                        throw new IllegalArgumentException("Expected work <type> <distribution> ...: " + line);
+                    }
+                    distributions[parseType(tokens[1]).code()] = WorkDistribution.create(tokens[2],
+                            parseParameters(tokens, 3, line));
+                }
+                case "mix" -> {
+                    if (tokens.length < 3) {
+                        throw new IllegalArgumentException("Expected mix <seconds> <type>=<weight> ...: " + line);
+                    }
+                    final long startNanos = Math.round(Double.parseDouble(tokens[1]) * NANOS_PER_SECOND);
+                    if (!starts.isEmpty() && startNanos <= starts.getLast()) {
+                        throw new IllegalArgumentException("Mix times must be increasing: " + line);
+                    }
+                    final double[] stepWeights = new double[TransactionType.count()];
+                    parseParameters(tokens, 2, line).forEach((type, weight) -> {
+                        if (weight < 0) {
+                            throw new IllegalArgumentException("Mix weights must be non-negative: " + line);
+                        }
+                        stepWeights[parseType(type).code()] = weight;
+                    });
+                    starts.add(startNanos);
+                    weights.add(stepWeights);
+                }
+                default -> throw new IllegalArgumentException("Unknown workload profile directive: " + line);
+            }
+        }
+        if (Arrays.stream(distributions).allMatch(d -> d == null)) {
+            throw new IllegalArgumentException("Workload profile has no work lines");
+        }
+        if (weights.isEmpty()) {
+            final double[] equal = new double[TransactionType.count()];
+            for (int code = 0; code < equal.length; code++) {
+                equal[code] = distributions[code] == null ? 0 : 1;
+            }
+            starts.add(0L);
+            weights.add(equal);
+        }
+        final double[][] cumulative = new double[weights.size()][];
+        for (int step = 0; step < cumulative.length; step++) {
+            cumulative[step] = cumulativeWeights(weights.get(step), distributions);
+        }
+        return new WorkloadProfile(distributions, starts.stream().mapToLong(Long::longValue).toArray(), cumulative);
+    }
+
+    /**
+     * Create a transaction of a random type from the mix at a time, with work from that type's distribution.
+     *
+     * @param elapsedNanos the time since load started
+     * @param random the random for the type and work
+     * @param conflictKey the transaction's conflict key
+     * @return the new transaction
+     */
+    public Transaction createTransaction(long elapsedNanos, Random random, int conflictKey) {
+        int step = stepStartNanos.length - 1;
+        while (step > 0 && stepStartNanos[step] > elapsedNanos) {
+            step--;
+        }
+        final double[] cumulative = stepCumulativeWeights[step];
+        final double pick = random.nextDouble();
+        int code = 0;
+        while (pick >= cumulative[code] && code < cumulative.length - 1) {
+            code++;
+        }
+        return new Transaction(distributions[code].sampleWorkNanos(random), conflictKey,
+                TransactionType.fromCode((byte) code));
+    }
+
+    private static double[] cumulativeWeights(double[] weights, WorkDistribution[] distributions) {
+        double total = 0;
+        for (int code = 0; code < weights.length; code++) {
+            if (weights[code] > 0 && distributions[code] == null) {
+                throw new IllegalArgumentException("Mix weight for " + TransactionType.fromCode((byte) code)
+                        + " which has no work line");
+            }
+            total += weights[code];
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mix weights must not all be 0");
+        }
+        final double[] cumulative = new double[weights.length];
+        double sum = 0;
+        int last = 0;
+        for (int code = 0; code < weights.length; code++) {
+            sum += weights[code];
+            cumulative[code] = sum / total;
+            if (weights[code] > 0) {
+                last = code;
+            }
+        }
+        // guard against rounding leaving a pick of just under 1 past the last weighted type
+        Arrays.fill(cumulative, last, cumulative.length, 1);
+        return cumulative;
+    }
+
+    private static TransactionType parseType(String name) {
+        return TransactionType.valueOf(name.toUpperCase());
+    }
+
+    private static Map<String, Double> parseParameters(String[] tokens, int from, String line) {
+        final Map<String, Double> parameters = new HashMap<>();
+        for (int i = from; i < tokens.length; i++) {
+            final int equals = tokens[i].indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=value: " + line);
+            }
+            parameters.put(tokens[i].substring(0, equals), Double.parseDouble(tokens[i].substring(equals + 1)));
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,39 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, striped over cells with a {@link LongAdder} so many threads can increment it
+ * without contending on one cache line. It is never reset, readers take the difference between two snapshots, so any
+ * number of readers can consume it independently.
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Add to the count.
+     *
+     * @param amount the amount to add, non-negative
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Get the total count, not an atomic snapshot while other threads are adding.
+     *
+     * @return the count since the counter was created
+     */
+    public long sum() {
+        return count.sum();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+}
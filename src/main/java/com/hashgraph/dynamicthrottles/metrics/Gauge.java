@@ -0,0 +1,10 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+/**
+ * A value read when a snapshot is taken, for example a queue depth or a token rate. Gauges are called from the thread
+ * taking the snapshot so must be safe to read from any thread.
+ */
+@FunctionalInterface
+public interface Gauge {
+    double value();
+}
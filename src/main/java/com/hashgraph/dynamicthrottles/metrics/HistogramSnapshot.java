@@ -0,0 +1,124 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+/**
+ * An immutable copy of a {@link LogLinearHistogram} holding only its non-empty buckets. Latency histograms have a few
+ * thousand buckets but values only ever fall in a small run of them, so snapshots taken every interval of every
+ * histogram in a large network stay small.
+ */
+public final class HistogramSnapshot {
+    final int subBucketBits;
+    /** Indexes of the non-empty buckets, ascending */
+    final int[] buckets;
+    /** Counts of the non-empty buckets, matching buckets */
+    final long[] counts;
+    final long totalCount;
+    final long totalValue;
+    final long max;
+
+    /**
+     * @param subBucketBits the precision of the histogram the buckets came from
+     * @param buckets the indexes of the non-empty buckets in ascending order
+     * @param counts the counts of those buckets
+     * @param totalCount the sum of the counts
+     * @param totalValue the sum of the values recorded
+     * @param max the largest value recorded
+     */
+    HistogramSnapshot(int subBucketBits, int[] buckets, long[] counts, long totalCount, long totalValue, long max) {
+        this.subBucketBits = subBucketBits;
+        this.buckets = buckets;
+        this.counts = counts;
+        this.totalCount = totalCount;
+        this.totalValue = totalValue;
+        this.max = max;
+    }
+
+    /**
+     * Create an empty snapshot with the default histogram precision.
+     *
+     * @return the empty snapshot
+     */
+    public static HistogramSnapshot empty() {
+        return new HistogramSnapshot(LogLinearHistogram.DEFAULT_SUB_BUCKET_BITS, new int[0], new long[0], 0, 0, 0);
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return totalCount == 0 ? 0 : totalValue / (double) totalCount;
+    }
+
+    /**
+     * Get the value at a percentile, the highest value in the bucket the percentile falls in, so it is never less than
+     * the true value.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the value at the percentile, 0 if nothing was recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(LogLinearHistogram.highestValueInBucket(buckets[i], subBucketBits), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Create a snapshot of the values recorded between an earlier snapshot of the same histogram and this one. The max
+     * becomes the highest value in the highest bucket still counted, as the max of the later values is not known.
+     *
+     * @param earlier the earlier snapshot
+     * @return the change
+     */
+    public HistogramSnapshot since(HistogramSnapshot earlier) {
+        if (earlier.subBucketBits != subBucketBits) {
+            throw new IllegalArgumentException("histograms must have the same precision");
+        }
+        // every earlier bucket is also in this one, values are never removed from a histogram
+        int changed = 0;
+        for (int i = 0, j = 0; i < buckets.length; i++) {
+            final long before = j < earlier.buckets.length && earlier.buckets[j] == buckets[i] ? earlier.counts[j++] : 0;
+            if (counts[i] > before) {
+                changed++;
+            }
+        }
+        final int[] changedBuckets = new int[changed];
+        final long[] changedCounts = new long[changed];
+        long changedTotal = 0;
+        int index = 0;
+        for (int i = 0, j = 0; i < buckets.length; i++) {
+            final long before = j < earlier.buckets.length && earlier.buckets[j] == buckets[i] ? earlier.counts[j++] : 0;
+            if (counts[i] > before) {
+                changedBuckets[index] = buckets[i];
+                changedCounts[index] = counts[i] - before;
+                changedTotal += changedCounts[index];
+                index++;
+            }
+        }
+        final long changedMax = changed == 0 ? 0
+                : Math.min(LogLinearHistogram.highestValueInBucket(changedBuckets[changed - 1], subBucketBits), max);
+        return new HistogramSnapshot(subBucketBits, changedBuckets, changedCounts, changedTotal,
+                totalValue - earlier.totalValue, changedMax);
+    }
+
+    @Override
+    public String toString() {
+        return "p50=%d, p99=%d, p999=%d, max=%d, n=%d".formatted(valueAtPercentile(50), valueAtPercentile(99),
+                valueAtPercentile(99.9), max(), count());
+    }
+}
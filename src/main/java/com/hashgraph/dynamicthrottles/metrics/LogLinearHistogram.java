@@ -0,0 +1,270 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of non-negative long values with log-linear buckets, in the style of HdrHistogram. Values
+ * below 2^subBucketBits are counted exactly, above that each power of two range is split into 2^(subBucketBits - 1)
+ * linear buckets, so every recorded value is within a fixed relative precision, 1/64 or about 1.6% with the default 7
+ * bits, across the whole range with a fixed number of buckets. Percentiles report the top of a bucket, so may read up
+ * to that much high.
+ * <p>
+ * Recording is lock-free and allocation free, safe from any number of threads. Reads while recording see a consistent
+ * enough view for metrics but are not an atomic snapshot, use copy() for one, or snapshot() for a compact immutable one.
+ */
+public final class LogLinearHistogram {
+    /** Default sub bucket bits, 128 exact values then 64 buckets per power of two, a precision of 1/64 */
+    public static final int DEFAULT_SUB_BUCKET_BITS = 7;
+    /** Default highest trackable value, an hour in nanoseconds */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 3_600_000_000_000L;
+
+    private final int subBucketBits;
+    /** Number of linear buckets per power of two above the exact range */
+    private final int subBucketHalfCount;
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong(0);
+    private final AtomicLong totalValue = new AtomicLong(0);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    /**
+     * Create a histogram with the default precision and range, suitable for latencies in nanoseconds.
+     */
+    public LogLinearHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Create a histogram.
+     *
+     * @param highestTrackableValue the highest value that can be recorded, higher values are recorded as this
+     * @param subBucketBits log2 of the number of exact values, sets the precision
+     */
+    public LogLinearHistogram(long highestTrackableValue, int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 20) {
+            throw new IllegalArgumentException("subBucketBits must be between 1 and 20");
+        }
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("highestTrackableValue must be positive");
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBucketHalfCount = 1 << (subBucketBits - 1);
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    /**
+     * Record one value.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Record a value a number of times, for example a latency shared by every transaction in an event.
+     *
+     * @param value the value, negative values are recorded as 0
+     * @param count the number of times to record it
+     */
+    public void record(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        final long clamped = Math.max(0, Math.min(highestTrackableValue, value));
+        counts.addAndGet(bucketIndex(clamped), count);
+        totalCount.addAndGet(count);
+        totalValue.addAndGet(clamped * count);
+        if (clamped > maxValue.get()) {
+            maxValue.accumulateAndGet(clamped, Math::max);
+        }
+    }
+
+    public long count() {
+        return totalCount.get();
+    }
+
+    public long max() {
+        return maxValue.get();
+    }
+
+    public double mean() {
+        final long count = totalCount.get();
+        return count == 0 ? 0 : totalValue.get() / (double) count;
+    }
+
+    /**
+     * Get the value at a percentile, the highest value in the bucket the percentile falls in, so it is never less than
+     * the true value.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the value at the percentile, 0 if nothing has been recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        final long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(highestValueInBucket(i, subBucketBits), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * Add all the values recorded in another histogram with the same layout to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LogLinearHistogram other) {
+        if (other.subBucketBits != subBucketBits || other.counts.length() != counts.length()) {
+            throw new IllegalArgumentException("histograms must have the same precision and range");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            final long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalValue.addAndGet(other.totalValue.get());
+        maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    /**
+     * Add all the values in a snapshot of a histogram with the same precision to this one.
+     *
+     * @param snapshot the snapshot to add
+     */
+    public void add(HistogramSnapshot snapshot) {
+        if (snapshot.subBucketBits != subBucketBits) {
+            throw new IllegalArgumentException("histograms must have the same precision");
+        }
+        for (int i = 0; i < snapshot.buckets.length; i++) {
+            counts.addAndGet(Math.min(snapshot.buckets[i], counts.length() - 1), snapshot.counts[i]);
+        }
+        totalCount.addAndGet(snapshot.totalCount);
+        totalValue.addAndGet(snapshot.totalValue);
+        maxValue.accumulateAndGet(Math.min(snapshot.max, highestTrackableValue), Math::max);
+    }
+
+    /**
+     * Remove the values recorded in an earlier copy of this histogram, leaving the values recorded since. The max
+     * becomes the highest value in the highest bucket still counted, as the max of the later values is not known.
+     *
+     * @param earlier an earlier copy of this histogram
+     */
+    public void subtract(LogLinearHistogram earlier) {
+        if (earlier.subBucketBits != subBucketBits || earlier.counts.length() != counts.length()) {
+            throw new IllegalArgumentException("histograms must have the same precision and range");
+        }
+        int highest = -1;
+        for (int i = 0; i < counts.length(); i++) {
+            final long count = counts.addAndGet(i, -earlier.counts.get(i));
+            if (count > 0) {
+                highest = i;
+            }
+        }
+        totalCount.addAndGet(-earlier.totalCount.get());
+        totalValue.addAndGet(-earlier.totalValue.get());
+        maxValue.set(highest < 0 ? 0 : Math.min(highestValueInBucket(highest, subBucketBits), maxValue.get()));
+    }
+
+    /**
+     * Create a copy of this histogram.
+     *
+     * @return a new histogram with the same values
+     */
+    public LogLinearHistogram copy() {
+        final LogLinearHistogram copy = new LogLinearHistogram(highestTrackableValue, subBucketBits);
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * Create an immutable snapshot of this histogram holding only the non-empty buckets, far smaller than a copy.
+     *
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        int nonEmpty = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                nonEmpty++;
+            }
+        }
+        // buckets recorded into between the two passes are left out, so the total is taken from the buckets copied
+        int[] buckets = new int[nonEmpty];
+        long[] bucketCounts = new long[nonEmpty];
+        long total = 0;
+        int index = 0;
+        for (int i = 0; i < counts.length() && index < nonEmpty; i++) {
+            final long count = counts.get(i);
+            if (count != 0) {
+                buckets[index] = i;
+                bucketCounts[index] = count;
+                total += count;
+                index++;
+            }
+        }
+        if (index < nonEmpty) {
+            // buckets reset between the two passes
+            buckets = Arrays.copyOf(buckets, index);
+            bucketCounts = Arrays.copyOf(bucketCounts, index);
+        }
+        return new HistogramSnapshot(subBucketBits, buckets, bucketCounts, total, totalValue.get(), maxValue.get());
+    }
+
+    /**
+     * Clear all recorded values. Values recorded concurrently with a reset may be partly lost.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * Get the bucket a value is counted in.
+     */
+    private int bucketIndex(long value) {
+        if (value < (1L << subBucketBits)) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value) - subBucketBits + 1;
+        return exponent * subBucketHalfCount + (int) (value >>> exponent);
+    }
+
+    /**
+     * Get the highest value counted in a bucket of a histogram with the given precision.
+     */
+    static long highestValueInBucket(int index, int subBucketBits) {
+        if (index < (1 << subBucketBits)) {
+            return index;
+        }
+        final int subBucketHalfCount = 1 << (subBucketBits - 1);
+        final int exponent = index / subBucketHalfCount - 1;
+        final long subBucket = index - (long) exponent * subBucketHalfCount;
+        return (subBucket << exponent) + (1L << exponent) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "p50=%d, p99=%d, p999=%d, max=%d, n=%d".formatted(valueAtPercentile(50), valueAtPercentile(99),
+                valueAtPercentile(99.9), max(), count());
+    }
+}
@@ -0,0 +1,166 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+import com.hashgraph.dynamicthrottles.time.Clock;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Named counters, gauges and histograms for one simulation. Metrics are updated on the hot paths without locks and
+ * never reset, readers take snapshots and compare them to their own earlier snapshot, so the command line, the UI and
+ * headless reports can all read the same metrics without disturbing each other.
+ * <p>
+ * Names are dot separated, for example "node.1.ingestedTransactions", and snapshots list them in name order. Fixed
+ * interval snapshots can be taken on the simulation scheduler, each one published to lastInterval() and any interval
+ * listeners.
+ */
+public final class MetricsRegistry {
+    private final Clock clock;
+    private final long createdNanos;
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, LogLinearHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final List<Consumer<MetricsSnapshot>> intervalListeners = new CopyOnWriteArrayList<>();
+    /** The cumulative snapshot the current interval started from, only used by the interval snapshot task */
+    private MetricsSnapshot intervalStart;
+    private volatile MetricsSnapshot lastInterval;
+
+    /**
+     * Create an empty registry.
+     *
+     * @param clock the clock snapshots are timed with
+     */
+    public MetricsRegistry(Clock clock) {
+        this.clock = clock;
+        this.createdNanos = clock.nanoTime();
+    }
+
+    /**
+     * Get a counter, creating it if it does not exist.
+     *
+     * @param name the counter name
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Add an existing counter.
+     *
+     * @param name the counter name
+     * @param counter the counter
+     * @throws IllegalArgumentException if there is already a counter with that name
+     */
+    public void register(String name, Counter counter) {
+        if (counters.putIfAbsent(name, counter) != null) {
+            throw new IllegalArgumentException("Counter already registered: " + name);
+        }
+    }
+
+    /**
+     * Add a gauge.
+     *
+     * @param name the gauge name
+     * @param gauge the gauge
+     * @throws IllegalArgumentException if there is already a gauge with that name
+     */
+    public void gauge(String name, Gauge gauge) {
+        if (gauges.putIfAbsent(name, gauge) != null) {
+            throw new IllegalArgumentException("Gauge already registered: " + name);
+        }
+    }
+
+    /**
+     * Get all the gauges, for reading them directly without taking a full snapshot.
+     *
+     * @return unmodifiable view of the gauges by name, in name order
+     */
+    public Map<String, Gauge> gauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    /**
+     * Get a histogram with the default precision and range, creating it if it does not exist.
+     *
+     * @param name the histogram name
+     * @return the histogram
+     */
+    public LogLinearHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LogLinearHistogram());
+    }
+
+    /**
+     * Add an existing histogram.
+     *
+     * @param name the histogram name
+     * @param histogram the histogram
+     * @throws IllegalArgumentException if there is already a histogram with that name
+     */
+    public void register(String name, LogLinearHistogram histogram) {
+        if (histograms.putIfAbsent(name, histogram) != null) {
+            throw new IllegalArgumentException("Histogram already registered: " + name);
+        }
+    }
+
+    /**
+     * Take a cumulative snapshot of every metric, counters and histograms since the registry was created.
+     *
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot() {
+        final long now = clock.nanoTime();
+        final Map<String, Long> counterValues = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+        final Map<String, Double> gaugeValues = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.value()));
+        final Map<String, HistogramSnapshot> histogramSnapshots = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> histogramSnapshots.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(now, now - createdNanos, counterValues, gaugeValues, histogramSnapshots);
+    }
+
+    /**
+     * Start taking a snapshot every interval on the scheduler, each one covering the interval since the last.
+     *
+     * @param scheduler the simulation scheduler
+     * @param intervalNanos the time between snapshots
+     */
+    public void startIntervalSnapshots(Scheduler scheduler, long intervalNanos) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("intervalNanos must be positive");
+        }
+        intervalStart = snapshot();
+        scheduler.scheduleAtFixedRate(() -> {
+            final MetricsSnapshot now = snapshot();
+            final MetricsSnapshot interval = now.since(intervalStart);
+            intervalStart = now;
+            lastInterval = interval;
+            for (Consumer<MetricsSnapshot> listener : intervalListeners) {
+                listener.accept(interval);
+            }
+        }, intervalNanos, intervalNanos);
+    }
+
+    /**
+     * Add a listener called with each interval snapshot, on the scheduler thread.
+     *
+     * @param listener the listener
+     */
+    public void addIntervalListener(Consumer<MetricsSnapshot> listener) {
+        intervalListeners.add(listener);
+    }
+
+    /**
+     * Get the most recent interval snapshot.
+     *
+     * @return the snapshot, null until the first interval has completed
+     */
+    public MetricsSnapshot lastInterval() {
+        return lastInterval;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values of every metric in a {@link MetricsRegistry} at one time, or over an interval when created with
+ * since(). Counters and histograms are cumulative in a snapshot from the registry and the change over the interval in
+ * an interval snapshot, gauges are always the value at the end.
+ *
+ * @param timeNanos the time the snapshot was taken, on the simulation clock
+ * @param intervalNanos the length of the interval counters and histograms cover, from the registry's creation for a
+ *                      cumulative snapshot
+ * @param counters the counter values by name
+ * @param gauges the gauge values by name
+ * @param histograms snapshots of the histograms by name, holding only their non-empty buckets
+ */
+public record MetricsSnapshot(long timeNanos, long intervalNanos, Map<String, Long> counters,
+                              Map<String, Double> gauges, Map<String, HistogramSnapshot> histograms) {
+    /**
+     * Get a counter value.
+     *
+     * @param name the counter name
+     * @return the value, 0 if there is no counter with that name
+     */
+    public long counter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    /**
+     * Get a counter value per second of the interval.
+     *
+     * @param name the counter name
+     * @return the rate per second, 0 for an empty interval
+     */
+    public double rate(String name) {
+        return intervalNanos <= 0 ? 0 : counter(name) * (double) NANOS_PER_SECOND / intervalNanos;
+    }
+
+    /**
+     * Get a gauge value.
+     *
+     * @param name the gauge name
+     * @return the value, NaN if there is no gauge with that name
+     */
+    public double gauge(String name) {
+        return gauges.getOrDefault(name, Double.NaN);
+    }
+
+    /**
+     * Get a histogram.
+     *
+     * @param name the histogram name
+     * @return the histogram, empty if there is no histogram with that name
+     */
+    public HistogramSnapshot histogram(String name) {
+        final HistogramSnapshot histogram = histograms.get(name);
+        return histogram == null ? HistogramSnapshot.empty() : histogram;
+    }
+
+    /**
+     * Create a snapshot of the change between an earlier snapshot of the same registry and this one. Each reader keeps
+     * its own previous snapshot, so readers never reset each other.
+     *
+     * @param previous the earlier snapshot
+     * @return the interval snapshot
+     */
+    public MetricsSnapshot since(MetricsSnapshot previous) {
+        final Map<String, Long> counterChanges = new LinkedHashMap<>();
+        counters.forEach((name, value) -> counterChanges.put(name, value - previous.counter(name)));
+        final Map<String, HistogramSnapshot> histogramChanges = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> {
+            final HistogramSnapshot before = previous.histograms.get(name);
+            histogramChanges.put(name, before == null ? histogram : histogram.since(before));
+        });
+        return new MetricsSnapshot(timeNanos, timeNanos - previous.timeNanos, counterChanges, gauges,
+                histogramChanges);
+    }
+}
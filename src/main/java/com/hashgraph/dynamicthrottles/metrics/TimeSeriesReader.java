@@ -0,0 +1,175 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a time series file written by {@link TimeSeriesRecorder} one row at a time, and exports it to CSV. A partly
+ * written last row, from a run that was killed, is ignored.
+ * <pre>
+ *   TimeSeriesReader &lt;file&gt; [csv file]
+ * </pre>
+ */
+public final class TimeSeriesReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final List<String> columns;
+    private final ByteBuffer buffer;
+    private final int rowSize;
+    private final float[] values;
+    private long timeNanos;
+
+    /**
+     * Open a time series file and read its header.
+     *
+     * @param file the file to read
+     * @throws IOException if the file can not be read or is not a time series file
+     */
+    public TimeSeriesReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 3);
+            readFully(header);
+            if (header.getInt() != TimeSeriesRecorder.MAGIC) {
+                throw new IOException("Not a time series file: " + file);
+            }
+            final int version = header.getInt();
+            if (version != TimeSeriesRecorder.VERSION) {
+                throw new IOException("Unsupported time series version " + version + ": " + file);
+            }
+            final int columnCount = header.getInt();
+            final List<String> names = new ArrayList<>(columnCount);
+            final ByteBuffer length = ByteBuffer.allocate(Short.BYTES);
+            for (int i = 0; i < columnCount; i++) {
+                length.clear();
+                readFully(length);
+                final ByteBuffer name = ByteBuffer.allocate(length.getShort());
+                readFully(name);
+                names.add(new String(name.array(), StandardCharsets.UTF_8));
+            }
+            this.columns = List.copyOf(names);
+            this.values = new float[columnCount];
+            this.rowSize = Long.BYTES + columnCount * Float.BYTES;
+            this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, rowSize));
+            buffer.flip();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the column names, one per recorded gauge.
+     *
+     * @return the column names in file order
+     */
+    public List<String> columns() {
+        return columns;
+    }
+
+    /**
+     * Move to the next row.
+     *
+     * @return true if there was another complete row, false at the end of the file
+     * @throws IOException if the file can not be read
+     */
+    public boolean next() throws IOException {
+        if (buffer.remaining() < rowSize) {
+            buffer.compact();
+            while (buffer.position() < rowSize && channel.read(buffer) > 0) {
+                // keep reading until there is a whole row or the end of the file
+            }
+            buffer.flip();
+            if (buffer.remaining() < rowSize) {
+                return false;
+            }
+        }
+        timeNanos = buffer.getLong();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getFloat();
+        }
+        return true;
+    }
+
+    /**
+     * Get the time of the current row.
+     *
+     * @return the time in nanoseconds on the simulation clock
+     */
+    public long timeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Get a value in the current row.
+     *
+     * @param column the column index
+     * @return the value
+     */
+    public float value(int column) {
+        return values[column];
+    }
+
+    /**
+     * Write all the remaining rows as CSV, a header row then one row per sample with the time in seconds first.
+     *
+     * @param out where to write the CSV
+     * @throws IOException if the file can not be read or the CSV written
+     */
+    public void exportCsv(Writer out) throws IOException {
+        out.write("timeSeconds," + String.join(",", columns) + "\n");
+        final StringBuilder line = new StringBuilder();
+        while (next()) {
+            line.setLength(0);
+            line.append(timeNanos / 1e9);
+            for (float value : values) {
+                line.append(',').append(value);
+            }
+            out.write(line.append('\n').toString());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Read until a buffer is full.
+     */
+    private void readFully(ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                throw new EOFException("Truncated time series header");
+            }
+        }
+        target.flip();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: TimeSeriesReader <file> [csv file]");
+            System.exit(1);
+        }
+        try (TimeSeriesReader reader = new TimeSeriesReader(Path.of(args[0]));
+                Writer out = new BufferedWriter(args.length > 1
+                        ? Files.newBufferedWriter(Path.of(args[1]))
+                        : new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            reader.exportCsv(out);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.hashgraph.dynamicthrottles.metrics;
+
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+
+/**
+ * Latency histograms, in nanoseconds, for each stage a transaction passes through on the node that accepted it, all
+ * counted per transaction.
+ * <ul>
+ *     <li>incomingQueue - from submit to being taken off the incoming queue into an event</li>
+ *     <li>consensus - from the event being created to its round reaching consensus</li>
+ *     <li>executeQueue - from the round reaching consensus to the node starting to execute it</li>
+ *     <li>execution - from the node starting to execute the round to finishing it</li>
+ *     <li>endToEnd - from submit to the round finishing execution, the latency a client sees</li>
+ * </ul>
+ * Every node executes every round, but only records the transactions in its own events, so each transaction is counted
+ * once across the network.
+ */
+public final class TransactionLatencies {
+    public final LogLinearHistogram incomingQueue = new LogLinearHistogram();
+    public final LogLinearHistogram consensus = new LogLinearHistogram();
+    public final LogLinearHistogram executeQueue = new LogLinearHistogram();
+    public final LogLinearHistogram execution = new LogLinearHistogram();
+    public final LogLinearHistogram endToEnd = new LogLinearHistogram();
+
+    /**
+     * Record the incoming queue time of the transactions in a newly created event.
+     *
+     * @param transactions the event's transactions
+     * @param createdNanos the time the event was created
+     */
+    public void recordEventCreated(TransactionBatch transactions, long createdNanos) {
+        if (!transactions.hasSubmitTimes()) {
+            return;
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            incomingQueue.record(createdNanos - transactions.submitTimeNanos(i));
+        }
+    }
+
+    /**
+     * Record the consensus, execute queue, execution and end to end times of the transactions in a node's own events
+     * in a round it has finished executing.
+     *
+     * @param nodeId the node that executed the round, only its events are recorded
+     * @param round the executed round
+     * @param startNanos the time the node started executing the round
+     * @param endNanos the time the node finished executing the round
+     */
+    public void recordRoundExecuted(int nodeId, Round round, long startNanos, long endNanos) {
+        for (PostConsensusEvent postConsensusEvent : round.events()) {
+            final Event event = postConsensusEvent.event();
+            final TransactionBatch transactions = event.transactions();
+            if (event.nodeId() != nodeId || transactions.isEmpty()) {
+                continue;
+            }
+            final int count = transactions.size();
+            consensus.record(round.consensusTimeNanos() - event.createdNanos(), count);
+            executeQueue.record(startNanos - round.consensusTimeNanos(), count);
+            execution.record(endNanos - startNanos, count);
+            if (transactions.hasSubmitTimes()) {
+                for (int i = 0; i < count; i++) {
+                    endToEnd.record(endNanos - transactions.submitTimeNanos(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Add all the latencies recorded by another node to these, to build network wide histograms.
+     *
+     * @param other the latencies to add
+     */
+    public void add(TransactionLatencies other) {
+        incomingQueue.add(other.incomingQueue);
+        consensus.add(other.consensus);
+        executeQueue.add(other.executeQueue);
+        execution.add(other.execution);
+        endToEnd.add(other.endToEnd);
+    }
+
+    /**
+     * Register the histograms with a metrics registry, named the prefix then the stage.
+     *
+     * @param registry the registry
+     * @param prefix the name prefix, for example "node.0.latency."
+     */
+    public void registerMetrics(MetricsRegistry registry, String prefix) {
+        registry.register(prefix + "incomingQueue", incomingQueue);
+        registry.register(prefix + "consensus", consensus);
+        registry.register(prefix + "executeQueue", executeQueue);
+        registry.register(prefix + "execution", execution);
+        registry.register(prefix + "endToEnd", endToEnd);
+    }
+
+    /**
+     * Add the latencies in a metrics snapshot of histograms registered with registerMetrics(), for example an interval
+     * snapshot to get the latencies over the last interval rather than since the start.
+     *
+     * @param snapshot the snapshot
+     * @param prefix the name prefix the histograms were registered with
+     */
+    public void add(MetricsSnapshot snapshot, String prefix) {
+        incomingQueue.add(snapshot.histogram(prefix + "incomingQueue"));
+        consensus.add(snapshot.histogram(prefix + "consensus"));
+        executeQueue.add(snapshot.histogram(prefix + "executeQueue"));
+        execution.add(snapshot.histogram(prefix + "execution"));
+        endToEnd.add(snapshot.histogram(prefix + "endToEnd"));
+    }
+
+    /**
+     * Clear all the histograms, so one set of latencies can be reused for each interval.
+     */
+    public void reset() {
+        incomingQueue.reset();
+        consensus.reset();
+        executeQueue.reset();
+        execution.reset();
+        endToEnd.reset();
+    }
+
+    /**
+     * Format the p50/p99/p999 of a histogram of nanoseconds in milliseconds.
+     *
+     * @param histogram the histogram
+     * @return the percentiles as "p50/p99/p999ms"
+     */
+    public static String formatPercentilesMillis(LogLinearHistogram histogram) {
+        return "%.1f/%.1f/%.1fms".formatted(histogram.valueAtPercentile(50) / 1e6,
+                histogram.valueAtPercentile(99) / 1e6, histogram.valueAtPercentile(99.9) / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return "in=%s, con=%s, exeQ=%s, exe=%s, e2e=%s".formatted(formatPercentilesMillis(incomingQueue),
+                formatPercentilesMillis(consensus), formatPercentilesMillis(executeQueue),
+                formatPercentilesMillis(execution), formatPercentilesMillis(endToEnd));
+    }
+}
@@ -1,5 +1,7 @@
 package com.hashgraph.dynamicthrottles.model;
 
+import com.hashgraph.dynamicthrottles.time.ParkWorkSimulator;
+import com.hashgraph.dynamicthrottles.time.WorkSimulator;
 import java.util.List;
 
 /**
@@ -8,13 +10,14 @@ import java.util.List;
  * @param nodeId The node that created this event
  * @param healthPercentage The health percentage of the node that created this event, between 0 and 100. We can debate
  *                         if this needs to be on every event or just state signing events are they may be enough.
- * @param transactions The list of transactions that are part of this event.
+ * @param transactions The columnar batch of transactions that are part of this event.
+ * @param createdNanos The time the event was created on the simulation clock, for latency tracking
  */
-public record Event(int nodeId, int healthPercentage, List<Transaction> transactions) {
+public record Event(int nodeId, int healthPercentage, TransactionBatch transactions, long createdNanos) {
 
     public Event {
         if (transactions == null) {
-            throw new IllegalArgumentException("transactions must be null");
+            throw new IllegalArgumentException("transactions must be non-null");
         }
         if (nodeId < 0) {
             throw new IllegalArgumentException("nodeId must be non-negative");
@@ -24,13 +27,36 @@ public record Event(int nodeId, int healthPercentage, List<Transaction> transact
         }
     }
 
+    /**
+     * Create an event with no creation time, for when latency is not tracked.
+     */
+    public Event(int nodeId, int healthPercentage, TransactionBatch transactions) {
+        this(nodeId, healthPercentage, transactions, 0);
+    }
+
+    /**
+     * Create an event from a list of transaction records, they are copied into a batch.
+     */
+    public Event(int nodeId, int healthPercentage, List<Transaction> transactions) {
+        this(nodeId, healthPercentage, TransactionBatch.of(transactions), 0);
+    }
+
     public void execute() {
-        for (Transaction transaction : transactions) {
-            transaction.execute();
+        execute(ParkWorkSimulator.INSTANCE);
+    }
+
+    /**
+     * Execute each transaction in turn on the calling thread.
+     *
+     * @param workSimulator how to simulate the work
+     */
+    public void execute(WorkSimulator workSimulator) {
+        for (int i = 0; i < transactions.size(); i++) {
+            workSimulator.simulateWork(transactions.workInNanos(i));
         }
     }
 
     public long getTotalWorkInNanos() {
-        return transactions.stream().mapToLong(Transaction::amountOfWorkInNanos).sum();
+        return transactions.totalWorkInNanos();
     }
 }
@@ -1,5 +1,7 @@
 package com.hashgraph.dynamicthrottles.model;
 
+import com.hashgraph.dynamicthrottles.time.WorkSimulator;
+
 /**
  * A record that represents an event received by the system. It contains the event itself and the timestamp when it was
  * received.
@@ -21,6 +23,10 @@ public record PostConsensusEvent(Event event, long receivedTimestamp) {
         event.execute();
     }
 
+    public void execute(WorkSimulator workSimulator) {
+        event.execute(workSimulator);
+    }
+
     public long getTotalWorkInNanos() {
         return event.getTotalWorkInNanos();
     }
@@ -1,29 +1,53 @@
 package com.hashgraph.dynamicthrottles.model;
 
+import com.hashgraph.dynamicthrottles.time.ParkWorkSimulator;
+import com.hashgraph.dynamicthrottles.time.WorkSimulator;
 import java.util.List;
-import java.util.concurrent.locks.LockSupport;
 
 /**
  * Round is a batch of events that reach consensus together and are executed together.
  *
  * @param events the list of events that reached consensus
  * @param consensusTimestamp the timestamp of the first event in the round, in milliseconds since the epoch
+ * @param summary the summary of the round's events, computed once when the round reached consensus
+ * @param consensusTimeNanos the time the round reached consensus on the simulation clock, for latency tracking
  */
-public record Round(long roundNum, List<PostConsensusEvent> events, long consensusTimestamp) {
+public record Round(long roundNum, List<PostConsensusEvent> events, long consensusTimestamp, RoundSummary summary,
+        long consensusTimeNanos) {
     public Round {
         if (events == null || events.isEmpty()) {
             throw new IllegalArgumentException("events must be non-empty");
         }
+        if (summary == null || summary.eventCount() != events.size()) {
+            throw new IllegalArgumentException("summary must be non-null and match events");
+        }
         if (consensusTimestamp < 0) {
             throw new IllegalArgumentException("consensusTimestamp must be non-negative");
         }
     }
 
+    /**
+     * Create a round with no consensus time, for when latency is not tracked.
+     */
+    public Round(long roundNum, List<PostConsensusEvent> events, long consensusTimestamp, RoundSummary summary) {
+        this(roundNum, events, consensusTimestamp, summary, 0);
+    }
+
     public void execute() {
-        // just do one total sleep as more accurate than doing each event or each transaction sleep
-        long totalWorkNanos = events.stream()
-                .mapToLong(PostConsensusEvent::getTotalWorkInNanos)
-                .sum();
-        LockSupport.parkNanos(totalWorkNanos);
+        execute(ParkWorkSimulator.INSTANCE);
+    }
+
+    /**
+     * Execute the round on the calling thread.
+     *
+     * @param workSimulator how to simulate the work
+     */
+    public void execute(WorkSimulator workSimulator) {
+        // just do one total work call as more accurate than doing each event or each transaction
+        workSimulator.simulateWork(getTotalWorkInNanos());
+    }
+
+    public long getTotalWorkInNanos() {
+        return summary.totalWorkNanos();
     }
 }
@@ -0,0 +1,39 @@
+package com.hashgraph.dynamicthrottles.model;
+
+/**
+ * Summary of a round computed once when the round reaches consensus, so every node can use it rather than rescanning
+ * the round's events. Everything in it is a deterministic function of the round's events. The arrays must not be
+ * modified.
+ *
+ * @param nodeIds the ids of the nodes with events in the round, in ascending order
+ * @param nodeHealths the average health of each node in nodeIds over its events in the round, between 0.0 and 1.0
+ * @param nodeEventCounts the number of events from each node in nodeIds
+ * @param quorumHealth the health of the quorum for this round alone, the lowest health of the healthiest 2/3 of nodes,
+ *                     between 0.0 and 1.0
+ * @param totalWorkNanos the total work of all transactions in the round in nanoseconds
+ * @param transactionCount the number of transactions in the round
+ * @param eventCount the number of events in the round
+ */
+public record RoundSummary(int[] nodeIds, double[] nodeHealths, int[] nodeEventCounts, double quorumHealth,
+        long totalWorkNanos, int transactionCount, int eventCount) {
+    public RoundSummary {
+        if (nodeIds == null || nodeHealths == null || nodeEventCounts == null) {
+            throw new IllegalArgumentException("per node arrays must be non-null");
+        }
+        if (nodeIds.length != nodeHealths.length || nodeIds.length != nodeEventCounts.length) {
+            throw new IllegalArgumentException("per node arrays must be the same length");
+        }
+        if (quorumHealth < 0 || quorumHealth > 1) {
+            throw new IllegalArgumentException("quorumHealth must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Get the number of nodes with events in the round.
+     *
+     * @return the number of nodes
+     */
+    public int numOfNodes() {
+        return nodeIds.length;
+    }
+}
@@ -2,7 +2,8 @@ package com.hashgraph.dynamicthrottles.model;
 
 import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
 
-import java.util.concurrent.locks.LockSupport;
+import com.hashgraph.dynamicthrottles.time.ParkWorkSimulator;
+import com.hashgraph.dynamicthrottles.time.WorkSimulator;
 
 /**
  * A simple pretend transaction class that simulates work by sleeping for a given amount of time. The amount of work is
@@ -10,11 +11,16 @@ import java.util.concurrent.locks.LockSupport;
  * transactions in the system.
  *
  * @param amountOfWorkInNanos the amount of work to be done in nanoseconds
+ * @param conflictKey the account or contract this transaction modifies, transactions with the same key conflict and
+ *                    must execute in order. 0 for no key, which conflicts with nothing.
+ * @param type the kind of transaction, UNTYPED for the legacy uniform workload
  */
-public record Transaction(int amountOfWorkInNanos) {
+public record Transaction(int amountOfWorkInNanos, int conflictKey, TransactionType type) {
 //    public static final int MAX_AMOUNT_OF_WORK_IN_NANOS = 250_000_000; // 1/4 second
     public static final int MAX_AMOUNT_OF_WORK_IN_NANOS = 1_000_000; // 1 ms
     public static final int MIN_AMOUNT_OF_WORK_15K_TPS_IN_NANOS = NANOS_PER_SECOND / 15_000; // 15K TPS
+    /** The conflict key of transactions that do not conflict with any other */
+    public static final int NO_CONFLICT_KEY = 0;
 
     public Transaction {
         if (amountOfWorkInNanos <= 0) {
@@ -23,9 +29,38 @@ public record Transaction(int amountOfWorkInNanos) {
         if (amountOfWorkInNanos > MAX_AMOUNT_OF_WORK_IN_NANOS) {
             throw new IllegalArgumentException("amountOfWorkInNanos must be less than " + MAX_AMOUNT_OF_WORK_IN_NANOS);
         }
+        if (conflictKey < 0) {
+            throw new IllegalArgumentException("conflictKey must be non-negative");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("type must be non-null");
+        }
+    }
+
+    /**
+     * Create an untyped transaction.
+     *
+     * @param amountOfWorkInNanos the amount of work to be done in nanoseconds
+     * @param conflictKey the transaction's conflict key
+     */
+    public Transaction(int amountOfWorkInNanos, int conflictKey) {
+        this(amountOfWorkInNanos, conflictKey, TransactionType.UNTYPED);
+    }
+
+    /**
+     * Create an untyped transaction with no conflict key.
+     *
+     * @param amountOfWorkInNanos the amount of work to be done in nanoseconds
+     */
+    public Transaction(int amountOfWorkInNanos) {
+        this(amountOfWorkInNanos, NO_CONFLICT_KEY);
     }
 
     public void execute() {
-        LockSupport.parkNanos(amountOfWorkInNanos);
+        execute(ParkWorkSimulator.INSTANCE);
+    }
+
+    public void execute(WorkSimulator workSimulator) {
+        workSimulator.simulateWork(amountOfWorkInNanos);
     }
 }
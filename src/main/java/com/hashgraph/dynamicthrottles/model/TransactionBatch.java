@@ -0,0 +1,326 @@
+package com.hashgraph.dynamicthrottles.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A compact, immutable, columnar batch of transactions. Rather than a list of {@link Transaction} objects each wrapping
+ * a single int, the batch stores each field as a primitive array column, so a batch of a hundred transactions is a
+ * handful of objects however many transactions it holds. Metadata columns are optional and only allocated when used.
+ * <p>
+ * The {@link Transaction} record API is kept as a view, {@link #get(int)} and iteration create transaction records on
+ * demand, but hot paths should read the columns directly.
+ */
+public final class TransactionBatch implements Iterable<Transaction> {
+    /** A batch with no transactions */
+    public static final TransactionBatch EMPTY = new TransactionBatch(0, new int[0], null, null, null, 0);
+    /** The type code used when a batch has no type column, the code of TransactionType.UNTYPED */
+    public static final byte NO_TYPE = 0;
+
+    private final int size;
+    /** The amount of work of each transaction in nanoseconds */
+    private final int[] work;
+    /** The time each transaction was submitted in nanoseconds, null if not recorded */
+    private final long[] submitTimes;
+    /** The type code of each transaction, null if not recorded */
+    private final byte[] types;
+    /** The conflict key of each transaction, null if none have keys */
+    private final int[] conflictKeys;
+    /** Sum of work column, precomputed as it is needed for every round */
+    private final long totalWorkInNanos;
+
+    private TransactionBatch(int size, int[] work, long[] submitTimes, byte[] types, int[] conflictKeys,
+            long totalWorkInNanos) {
+        this.size = size;
+        this.work = work;
+        this.submitTimes = submitTimes;
+        this.types = types;
+        this.conflictKeys = conflictKeys;
+        this.totalWorkInNanos = totalWorkInNanos;
+    }
+
+    /**
+     * Create a batch from a list of transaction records.
+     *
+     * @param transactions the transactions
+     * @return a new batch with the same transactions
+     */
+    public static TransactionBatch of(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return EMPTY;
+        }
+        final Builder builder = new Builder(transactions.size());
+        for (Transaction transaction : transactions) {
+            builder.add(transaction);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the number of transactions in the batch.
+     *
+     * @return the number of transactions
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the amount of work of a transaction.
+     *
+     * @param index the index of the transaction in the batch
+     * @return the amount of work in nanoseconds
+     */
+    public int workInNanos(int index) {
+        return work[index];
+    }
+
+    /**
+     * Get the time a transaction was submitted.
+     *
+     * @param index the index of the transaction in the batch
+     * @return the submit time in nanoseconds from the simulation clock, or 0 if the batch has no submit times
+     */
+    public long submitTimeNanos(int index) {
+        return submitTimes == null ? 0 : submitTimes[index];
+    }
+
+    public boolean hasSubmitTimes() {
+        return submitTimes != null;
+    }
+
+    /**
+     * Get the type code of a transaction.
+     *
+     * @param index the index of the transaction in the batch
+     * @return the type code, or NO_TYPE if the batch has no types
+     */
+    public byte type(int index) {
+        return types == null ? NO_TYPE : types[index];
+    }
+
+    public boolean hasTypes() {
+        return types != null;
+    }
+
+    /**
+     * Get the conflict key of a transaction.
+     *
+     * @param index the index of the transaction in the batch
+     * @return the conflict key, or Transaction.NO_CONFLICT_KEY if the batch has no keys
+     */
+    public int conflictKey(int index) {
+        return conflictKeys == null ? Transaction.NO_CONFLICT_KEY : conflictKeys[index];
+    }
+
+    public boolean hasConflictKeys() {
+        return conflictKeys != null;
+    }
+
+    /**
+     * Get the total amount of work of all transactions in the batch.
+     *
+     * @return the total work in nanoseconds
+     */
+    public long totalWorkInNanos() {
+        return totalWorkInNanos;
+    }
+
+    /**
+     * Get a transaction record view of one transaction, creates a new record on each call.
+     *
+     * @param index the index of the transaction in the batch
+     * @return the transaction
+     */
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return new Transaction(work[index], conflictKey(index), TransactionType.fromCode(type(index)));
+    }
+
+    /**
+     * Get a read only list view of the batch as transaction records.
+     *
+     * @return list view of the batch
+     */
+    public List<Transaction> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                return TransactionBatch.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return asList().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionBatch[size=" + size + ", totalWorkInNanos=" + totalWorkInNanos + "]";
+    }
+
+    /**
+     * Builds batches by appending transactions to growable columns. Metadata columns are only allocated once a
+     * transaction with a value other than the default is added. A builder can be reused after build(), which copies the
+     * columns, so one builder per producing thread keeps allocation to the batches themselves.
+     */
+    public static final class Builder {
+        private int size = 0;
+        private int[] work;
+        private long[] submitTimes = null;
+        private byte[] types = null;
+        private int[] conflictKeys = null;
+        /** Whether each metadata column has a value other than the default since the last build */
+        private boolean submitTimesUsed, typesUsed, conflictKeysUsed;
+        private long totalWorkInNanos = 0;
+
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Create a builder.
+         *
+         * @param initialCapacity the number of transactions to allocate space for up front
+         */
+        public Builder(int initialCapacity) {
+            this.work = new int[Math.max(1, initialCapacity)];
+        }
+
+        /**
+         * Add a transaction record.
+         *
+         * @param transaction the transaction to add
+         * @return this builder
+         */
+        public Builder add(Transaction transaction) {
+            return add(transaction.amountOfWorkInNanos(), 0, transaction.type().code(), transaction.conflictKey());
+        }
+
+        /**
+         * Add a transaction with no metadata.
+         *
+         * @param workInNanos the amount of work in nanoseconds
+         * @return this builder
+         */
+        public Builder add(int workInNanos) {
+            return add(workInNanos, 0, NO_TYPE, Transaction.NO_CONFLICT_KEY);
+        }
+
+        /**
+         * Add a transaction with metadata.
+         *
+         * @param workInNanos the amount of work in nanoseconds
+         * @param submitTimeNanos the time the transaction was submitted in nanoseconds, 0 if not recorded
+         * @param type the transaction type code, NO_TYPE if not recorded
+         * @param conflictKey the transaction conflict key, Transaction.NO_CONFLICT_KEY if none
+         * @return this builder
+         */
+        public Builder add(int workInNanos, long submitTimeNanos, byte type, int conflictKey) {
+            if (size == work.length) {
+                grow();
+            }
+            if (submitTimes != null || submitTimeNanos != 0) {
+                if (submitTimes == null) {
+                    submitTimes = new long[work.length];
+                }
+                submitTimes[size] = submitTimeNanos;
+                submitTimesUsed |= submitTimeNanos != 0;
+            }
+            if (types != null || type != NO_TYPE) {
+                if (types == null) {
+                    types = new byte[work.length];
+                }
+                types[size] = type;
+                typesUsed |= type != NO_TYPE;
+            }
+            if (conflictKeys != null || conflictKey != Transaction.NO_CONFLICT_KEY) {
+                if (conflictKeys == null) {
+                    conflictKeys = new int[work.length];
+                }
+                conflictKeys[size] = conflictKey;
+                conflictKeysUsed |= conflictKey != Transaction.NO_CONFLICT_KEY;
+            }
+            work[size++] = workInNanos;
+            totalWorkInNanos += workInNanos;
+            return this;
+        }
+
+        /**
+         * Add a transaction from another batch, keeping its metadata.
+         *
+         * @param batch the batch to copy from
+         * @param index the index of the transaction in that batch
+         * @return this builder
+         */
+        public Builder add(TransactionBatch batch, int index) {
+            return add(batch.workInNanos(index), batch.submitTimeNanos(index), batch.type(index),
+                    batch.conflictKey(index));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Build a batch from the transactions added since the last build and reset the builder. Metadata columns stay
+         * allocated for reuse but are dropped from the batch if they only hold default values.
+         *
+         * @return the new batch
+         */
+        public TransactionBatch build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            final TransactionBatch batch = new TransactionBatch(size,
+                    Arrays.copyOf(work, size),
+                    submitTimesUsed ? Arrays.copyOf(submitTimes, size) : null,
+                    typesUsed ? Arrays.copyOf(types, size) : null,
+                    conflictKeysUsed ? Arrays.copyOf(conflictKeys, size) : null,
+                    totalWorkInNanos);
+            // clear used metadata so rows added without it read as defaults
+            if (submitTimesUsed) {
+                Arrays.fill(submitTimes, 0, size, 0);
+            }
+            if (typesUsed) {
+                Arrays.fill(types, 0, size, NO_TYPE);
+            }
+            if (conflictKeysUsed) {
+                Arrays.fill(conflictKeys, 0, size, Transaction.NO_CONFLICT_KEY);
+            }
+            submitTimesUsed = typesUsed = conflictKeysUsed = false;
+            size = 0;
+            totalWorkInNanos = 0;
+            return batch;
+        }
+
+        private void grow() {
+            final int newCapacity = work.length * 2;
+            work = Arrays.copyOf(work, newCapacity);
+            if (submitTimes != null) {
+                submitTimes = Arrays.copyOf(submitTimes, newCapacity);
+            }
+            if (types != null) {
+                types = Arrays.copyOf(types, newCapacity);
+            }
+            if (conflictKeys != null) {
+                conflictKeys = Arrays.copyOf(conflictKeys, newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hashgraph.dynamicthrottles.model;
+
+/**
+ * The kind of a transaction, so throttles and metrics can treat classes of transactions with very different costs
+ * differently. Stored in {@link TransactionBatch} type columns and replay files as its code.
+ */
+public enum TransactionType {
+    /** A transaction of no particular type, from the legacy uniform workload, code TransactionBatch.NO_TYPE */
+    UNTYPED,
+    /** A simple value transfer between accounts, cheap and consistent */
+    CRYPTO_TRANSFER,
+    /** Minting a token, moderately expensive */
+    TOKEN_MINT,
+    /** A smart contract call, whose cost can vary enormously */
+    SMART_CONTRACT;
+
+    private static final TransactionType[] VALUES = values();
+
+    /**
+     * Get the code stored in batch type columns and replay files.
+     *
+     * @return the type code, TransactionBatch.NO_TYPE for UNTYPED
+     */
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Get the type with a code.
+     *
+     * @param code the type code
+     * @return the type
+     * @throws IllegalArgumentException if there is no type with the code
+     */
+    public static TransactionType fromCode(byte code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown transaction type code " + code);
+        }
+        return VALUES[code];
+    }
+
+    /**
+     * Get the number of types, the size of arrays indexed by code.
+     *
+     * @return the number of types
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+}
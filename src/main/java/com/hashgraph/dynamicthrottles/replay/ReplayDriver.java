@@ -0,0 +1,152 @@
+package com.hashgraph.dynamicthrottles.replay;
+
+import com.hashgraph.dynamicthrottles.Node;
+import com.hashgraph.dynamicthrottles.metrics.Counter;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.replay.ReplayReader.Entry;
+import com.hashgraph.dynamicthrottles.replay.ReplayReader.RoundEntry;
+import com.hashgraph.dynamicthrottles.replay.ReplayReader.TransactionEntry;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Feeds a recorded run back into a simulation in place of its load generator and consensus. Each recorded transaction
+ * is submitted through {@link Node#acceptTransaction} at its recorded time whether or not it was accepted when
+ * recorded, and each recorded round is handed to the round handler at the time it reached consensus, so every replay
+ * sees exactly the same input. Run on a discrete event simulator the replay is fully deterministic.
+ * <p>
+ * The replay is open loop. Rounds are replayed as recorded whatever the nodes accept, so execution load and quorum
+ * health follow the recorded throttle rather than the replayed one. Replaying with a different throttle shows its
+ * acceptance decisions given the recorded network state, through the mismatch counter, but not the network's response
+ * to them.
+ * <p>
+ * Only one entry is read ahead, a single task on the scheduler replays every entry that is due then reschedules itself
+ * for the next one.
+ */
+public final class ReplayDriver {
+    /** Metric names of the replayed transaction, accepted, mismatch and round counters */
+    public static final String TRANSACTIONS_METRIC = "replay.transactions";
+    public static final String ACCEPTED_METRIC = "replay.accepted";
+    public static final String MISMATCHES_METRIC = "replay.acceptanceMismatches";
+    public static final String ROUNDS_METRIC = "replay.rounds";
+    private final Logger logger = System.getLogger(ReplayDriver.class.getName());
+    private final Scheduler scheduler;
+    private final ReplayReader reader;
+    private final List<Node> nodes;
+    private final Consumer<Round> roundHandler;
+    /** Transactions submitted */
+    public final Counter transactions = new Counter();
+    /** Transactions accepted by the nodes */
+    public final Counter acceptedTransactions = new Counter();
+    /** Transactions whose acceptance differs from the recorded run, 0 when replaying with the recorded throttle */
+    public final Counter acceptanceMismatches = new Counter();
+    /** Rounds handed to the round handler */
+    public final Counter rounds = new Counter();
+    private long timeOffsetNanos;
+    /** The next entry to replay, null when finished, only used by the replay task */
+    private Entry next;
+    private volatile boolean finished = false;
+
+    /**
+     * Create a replay driver, nothing is replayed until start() is called.
+     *
+     * @param scheduler the simulation scheduler
+     * @param reader the recorded run
+     * @param nodes the nodes, with the same ids as the recorded network
+     * @param roundHandler called with each recorded round
+     */
+    public ReplayDriver(Scheduler scheduler, ReplayReader reader, List<Node> nodes, Consumer<Round> roundHandler) {
+        if (reader.numOfNodes() != nodes.size()) {
+            throw new IllegalArgumentException("Recorded run has " + reader.numOfNodes()
+                    + " nodes but the simulation has " + nodes.size());
+        }
+        this.scheduler = scheduler;
+        this.reader = reader;
+        this.nodes = nodes;
+        this.roundHandler = roundHandler;
+    }
+
+    /**
+     * Add the replay counters to a registry.
+     *
+     * @param registry the registry to add to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.register(TRANSACTIONS_METRIC, transactions);
+        registry.register(ACCEPTED_METRIC, acceptedTransactions);
+        registry.register(MISMATCHES_METRIC, acceptanceMismatches);
+        registry.register(ROUNDS_METRIC, rounds);
+    }
+
+    /**
+     * Start replaying, recorded times are relative to now.
+     */
+    public void start() {
+        timeOffsetNanos = scheduler.clock().nanoTime();
+        scheduler.schedule(this::replayDueEntries, 0);
+    }
+
+    /**
+     * Has every entry been replayed?
+     *
+     * @return true once the end of the recording has been reached
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Replay every entry due by now, then schedule this again for the next entry.
+     */
+    private void replayDueEntries() {
+        try {
+            final long now = scheduler.clock().nanoTime();
+            if (next == null) {
+                next = reader.next(timeOffsetNanos);
+            }
+            while (next != null && next.timeNanos() <= now) {
+                replay(next);
+                next = reader.next(timeOffsetNanos);
+            }
+            if (next == null) {
+                finished = true;
+                reader.close();
+            } else {
+                scheduler.schedule(this::replayDueEntries, next.timeNanos() - now);
+            }
+        } catch (IOException e) {
+            finished = true;
+            logger.log(Level.ERROR, "Replay failed: " + e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Feed one entry to the simulation.
+     */
+    private void replay(Entry entry) {
+        switch (entry) {
+            case TransactionEntry transaction -> {
+                final boolean accepted = nodes.get(transaction.nodeId() - 1)
+                        .acceptTransaction(transaction.transaction());
+                transactions.increment();
+                if (accepted) {
+                    acceptedTransactions.increment();
+                }
+                if (accepted != transaction.accepted()) {
+                    acceptanceMismatches.increment();
+                }
+            }
+            case RoundEntry round -> {
+                roundHandler.accept(round.round());
+                rounds.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.hashgraph.dynamicthrottles.replay;
+
+import com.hashgraph.dynamicthrottles.impl.RoundSummarizer;
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+import com.hashgraph.dynamicthrottles.model.TransactionType;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the entries of a file written by {@link ReplayRecorder} in order. A partly written last entry, from a run that
+ * was killed, ends the replay.
+ */
+public final class ReplayReader implements Closeable {
+    /** An entry in a replay file, times are on the replaying simulation's clock */
+    public sealed interface Entry permits TransactionEntry, RoundEntry {
+        long timeNanos();
+    }
+
+    /**
+     * A transaction submitted to a node.
+     *
+     * @param timeNanos the time it was submitted
+     * @param nodeId the node it was submitted to
+     * @param transaction the transaction
+     * @param accepted true if the node accepted it in the recorded run
+     */
+    public record TransactionEntry(long timeNanos, int nodeId, Transaction transaction, boolean accepted)
+            implements Entry {}
+
+    /**
+     * A round that reached consensus.
+     *
+     * @param timeNanos the time it reached consensus
+     * @param round the round, with its events and transactions as recorded
+     */
+    public record RoundEntry(long timeNanos, Round round) implements Entry {}
+
+    private final DataInputStream in;
+    private final int numOfNodes;
+    /** Summaries of replayed rounds are recomputed, the summarizer is only used by the replaying thread */
+    private final RoundSummarizer roundSummarizer = new RoundSummarizer();
+    private final TransactionBatch.Builder transactions = new TransactionBatch.Builder();
+
+    /**
+     * Open a replay file and read its header.
+     *
+     * @param file the file to read
+     * @throws IOException if the file can not be read or is not a replay file
+     */
+    public ReplayReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            if (in.readInt() != ReplayRecorder.MAGIC) {
+                throw new IOException("Not a replay file: " + file);
+            }
+            final int version = in.readInt();
+            if (version != ReplayRecorder.VERSION) {
+                throw new IOException("Unsupported replay version " + version + ": " + file);
+            }
+            this.numOfNodes = in.readInt();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of nodes in the recorded network.
+     *
+     * @return the number of nodes
+     */
+    public int numOfNodes() {
+        return numOfNodes;
+    }
+
+    /**
+     * Read the next entry.
+     *
+     * @param timeOffsetNanos added to every recorded time, the time on the replaying clock the replay started
+     * @return the entry, or null at the end of the file
+     * @throws IOException if the file can not be read or is corrupt
+     */
+    public Entry next(long timeOffsetNanos) throws IOException {
+        try {
+            final int kind = in.read();
+            if (kind < 0) {
+                return null;
+            }
+            final long timeNanos = in.readLong() + timeOffsetNanos;
+            return switch (kind) {
+                case ReplayRecorder.TRANSACTION -> {
+                    final int nodeId = in.readInt();
+                    final int work = in.readInt();
+                    final int conflictKey = in.readInt();
+                    final TransactionType type = TransactionType.fromCode(in.readByte());
+                    yield new TransactionEntry(timeNanos, nodeId, new Transaction(work, conflictKey, type),
+                            in.readBoolean());
+                }
+                case ReplayRecorder.ROUND -> new RoundEntry(timeNanos, readRound(timeNanos, timeOffsetNanos));
+                default -> throw new IOException("Corrupt replay file, unknown entry kind " + kind);
+            };
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the body of a round entry.
+     */
+    private Round readRound(long consensusTimeNanos, long timeOffsetNanos) throws IOException {
+        final long roundNum = in.readLong();
+        final long consensusTimestamp = in.readLong();
+        final int eventCount = in.readInt();
+        final List<PostConsensusEvent> events = new ArrayList<>(eventCount);
+        for (int e = 0; e < eventCount; e++) {
+            final int nodeId = in.readInt();
+            final int health = in.readByte();
+            final long createdNanos = in.readLong() + timeOffsetNanos;
+            final long receivedTimestamp = in.readLong();
+            final int transactionCount = in.readInt();
+            for (int i = 0; i < transactionCount; i++) {
+                final int work = in.readInt();
+                final long submitTimeNanos = in.readLong();
+                final byte type = in.readByte();
+                final int conflictKey = in.readInt();
+                transactions.add(work, submitTimeNanos == 0 ? 0 : submitTimeNanos + timeOffsetNanos, type,
+                        conflictKey);
+            }
+            events.add(new PostConsensusEvent(
+                    new Event(nodeId, health, transactions.build(), createdNanos), receivedTimestamp));
+        }
+        return new Round(roundNum, events, consensusTimestamp, roundSummarizer.summarize(events),
+                consensusTimeNanos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
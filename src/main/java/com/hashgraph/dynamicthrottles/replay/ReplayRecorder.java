@@ -0,0 +1,118 @@
+package com.hashgraph.dynamicthrottles.replay;
+
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records the inputs of a simulation, every transaction submitted to a node and every round that reached consensus, so
+ * they can be fed back with {@link ReplayDriver} to reproduce the run exactly, or to run a different throttle on the
+ * same input. All times are recorded relative to the creation of the recorder.
+ * <p>
+ * The file is a header followed by entries in the order they happened, each a kind byte, a time and the entry:
+ * <pre>
+ *   header:      int MAGIC, int VERSION, int numOfNodes
+ *   transaction: byte TRANSACTION, long time, int nodeId, int work, int conflictKey, byte type, boolean accepted
+ *   round:       byte ROUND, long time, long roundNum, long consensusTimestamp, int eventCount, eventCount x event
+ *   event:       int nodeId, byte health, long createdTime, long receivedTimestamp, int transactionCount,
+ *                transactionCount x (int work, long submitTime, byte type, int conflictKey)
+ * </pre>
+ * Methods are synchronized as transactions and rounds are recorded from different threads in real time.
+ */
+public final class ReplayRecorder implements Closeable {
+    /** File magic number, "DTRR" */
+    public static final int MAGIC = 0x44545252;
+    public static final int VERSION = 1;
+    /** Entry kinds */
+    static final byte TRANSACTION = 1;
+    static final byte ROUND = 2;
+
+    private final Clock clock;
+    private final long startNanos;
+    private final DataOutputStream out;
+
+    /**
+     * Create a recorder and write the file header.
+     *
+     * @param file the file to write, replaced if it exists
+     * @param numOfNodes the number of nodes in the recorded network, a replay needs the same number
+     * @param clock the simulation clock
+     * @throws IOException if the file can not be created
+     */
+    public ReplayRecorder(Path file, int numOfNodes, Clock clock) throws IOException {
+        this.clock = clock;
+        this.startNanos = clock.nanoTime();
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(numOfNodes);
+    }
+
+    /**
+     * Record a transaction submitted to a node and whether it was accepted.
+     *
+     * @param nodeId the node it was submitted to
+     * @param transaction the transaction
+     * @param accepted true if the node accepted it
+     */
+    public synchronized void transactionSubmitted(int nodeId, Transaction transaction, boolean accepted) {
+        try {
+            out.writeByte(TRANSACTION);
+            out.writeLong(clock.nanoTime() - startNanos);
+            out.writeInt(nodeId);
+            out.writeInt(transaction.amountOfWorkInNanos());
+            out.writeInt(transaction.conflictKey());
+            out.writeByte(transaction.type().code());
+            out.writeBoolean(accepted);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record transaction", e);
+        }
+    }
+
+    /**
+     * Record a round that reached consensus, with all its events and their transactions.
+     *
+     * @param round the round
+     */
+    public synchronized void roundReachedConsensus(Round round) {
+        try {
+            out.writeByte(ROUND);
+            out.writeLong(round.consensusTimeNanos() - startNanos);
+            out.writeLong(round.roundNum());
+            out.writeLong(round.consensusTimestamp());
+            out.writeInt(round.events().size());
+            for (PostConsensusEvent postConsensusEvent : round.events()) {
+                final Event event = postConsensusEvent.event();
+                final TransactionBatch transactions = event.transactions();
+                out.writeInt(event.nodeId());
+                out.writeByte(event.healthPercentage());
+                out.writeLong(event.createdNanos() - startNanos);
+                out.writeLong(postConsensusEvent.receivedTimestamp());
+                out.writeInt(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                    out.writeInt(transactions.workInNanos(i));
+                    out.writeLong(transactions.hasSubmitTimes() ? transactions.submitTimeNanos(i) - startNanos : 0);
+                    out.writeByte(transactions.type(i));
+                    out.writeInt(transactions.conflictKey(i));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record round", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
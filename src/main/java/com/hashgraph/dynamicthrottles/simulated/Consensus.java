@@ -1,49 +1,79 @@
 package com.hashgraph.dynamicthrottles.simulated;
 
+import com.hashgraph.dynamicthrottles.impl.RoundSummarizer;
 import com.hashgraph.dynamicthrottles.model.Event;
 import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
 import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
-import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
  * This simulates the hashgraph consensus process. It just queues all incoming events and then takes a random number of
  * events and forms a round. The round size is between 10 and 400 events.
+ * <p>
+ * This class is not thread-safe, addEvent() must only be called from one thread at a time. In real time that is the
+ * consensus thread of {@link ConsensusPipeline}, in virtual time the simulation thread. consensusQueueSize() and
+ * currentRound can be read from any thread.
  */
-public class Consensus {
+public class Consensus implements ConsensusModel {
     private static final int MIN_EVENT_PER_ROUND = 50;
     private static final int MAX_EVENT_PER_ROUND = 400;
-    private final Random random = new Random(3626415163845131L);
-    private final ConcurrentLinkedDeque<Event> consensusQueue = new ConcurrentLinkedDeque<>();
+    private final Random random;
+    private final ArrayDeque<Event> consensusQueue = new ArrayDeque<>();
+    /** Size of consensusQueue published for other threads, as ArrayDeque is not thread-safe */
+    private volatile int consensusQueueSize = 0;
     private final Consumer<Round> roundHandler;
     public final AtomicLong currentRound = new AtomicLong(0);
     private final int twoThirdsOfNodes;
+    private final Clock clock;
+    /** Computes each round's summary once, for all nodes to share */
+    private final RoundSummarizer roundSummarizer = new RoundSummarizer();
+    /** Scratch marks of the nodes seen in a round attempt, indexed by node id, a node was seen if equal to attempt */
+    private long[] nodeSeenInAttempt = new long[16];
+    private long attempt = 0;
 
-    public Consensus(Consumer<Round> roundHandler, final int numberOfNodes) {
+    public Consensus(Consumer<Round> roundHandler, final int numberOfNodes, final long seed, final Clock clock) {
         this.roundHandler = roundHandler;
+        this.random = new Random(seed);
+        this.clock = clock;
         this.twoThirdsOfNodes = (numberOfNodes * 2) / 3;
     }
 
-    public synchronized void addEvent(Event event) {
+    @Override
+    public void addEvent(Event event) {
         consensusQueue.add(event);
+        tryCreateRound();
+        consensusQueueSize = consensusQueue.size();
+    }
+
+    private void tryCreateRound() {
         // try and create a round
         final int numOfEvents = random.nextInt(MIN_EVENT_PER_ROUND, MAX_EVENT_PER_ROUND);
         // see if we have enough events
         if (consensusQueue.size() >= numOfEvents) {
             // collect events
             final Event[] events = new Event[numOfEvents];
-            Set<Integer> nodesFromEvents = new HashSet<>();
+            attempt++;
+            int nodesFromEvents = 0;
             for (int i = 0; i < numOfEvents; i++) {
                 events[i] = consensusQueue.poll();
-                nodesFromEvents.add(events[i].nodeId());
+                final int nodeId = events[i].nodeId();
+                if (nodeId >= nodeSeenInAttempt.length) {
+                    nodeSeenInAttempt = Arrays.copyOf(nodeSeenInAttempt,
+                            Math.max(nodeId + 1, nodeSeenInAttempt.length * 2));
+                }
+                if (nodeSeenInAttempt[nodeId] != attempt) {
+                    nodeSeenInAttempt[nodeId] = attempt;
+                    nodesFromEvents++;
+                }
             }
             // check we have at least 2/3 of
-            if (nodesFromEvents.size() < twoThirdsOfNodes) {
+            if (nodesFromEvents < twoThirdsOfNodes) {
                 // not enough nodes, put them back on front of queue in same order we took them off
                 for(int i = numOfEvents-1; i >=0; i--) {
                     consensusQueue.addFirst(events[i]);
@@ -51,20 +81,29 @@ public class Consensus {
                 return;
             }
             // create a round
-            final long roundConsensusTimestamp = System.currentTimeMillis();
+            final long roundConsensusTimestamp = clock.currentTimeMillis();
             final AtomicLong eventConsensusTimestampAtomic = new AtomicLong(roundConsensusTimestamp);
+            final List<PostConsensusEvent> roundEvents = Arrays.stream(events)
+                    .map(e -> new PostConsensusEvent(e,eventConsensusTimestampAtomic.getAndIncrement()))
+                    .toList();
             final Round round = new Round(
                     currentRound.incrementAndGet(),
-                    Arrays.stream(events)
-                            .map(e -> new PostConsensusEvent(e,eventConsensusTimestampAtomic.getAndIncrement()))
-                            .toList(),
-                    roundConsensusTimestamp);
+                    roundEvents,
+                    roundConsensusTimestamp,
+                    roundSummarizer.summarize(roundEvents),
+                    clock.nanoTime());
             // call the round handler
             roundHandler.accept(round);
         }
     }
 
+    @Override
     public int consensusQueueSize() {
-        return consensusQueue.size();
+        return consensusQueueSize;
+    }
+
+    @Override
+    public long currentRound() {
+        return currentRound.get();
     }
 }
@@ -0,0 +1,52 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.function.Consumer;
+
+/**
+ * A model of how gossiped events are formed into consensus rounds. Implementations hand each round to a
+ * {@code Consumer<Round>} round handler as it is formed.
+ * <p>
+ * Implementations are not thread-safe, addEvent() is only called from one thread at a time. consensusQueueSize() and
+ * currentRound() can be called from any thread.
+ */
+public interface ConsensusModel {
+    /**
+     * Add an event gossiped by a node, may form and hand off one or more rounds.
+     *
+     * @param event the event
+     */
+    void addEvent(Event event);
+
+    /**
+     * Get the number of events waiting to reach consensus.
+     *
+     * @return the number of waiting events
+     */
+    int consensusQueueSize();
+
+    /**
+     * Get the number of the latest round formed.
+     *
+     * @return the round number, 0 before the first round
+     */
+    long currentRound();
+
+    /**
+     * Create the consensus model selected by a simulation config.
+     *
+     * @param config the simulation settings
+     * @param roundHandler called with each round as it is formed
+     * @param clock the clock for timestamps and latencies
+     * @return the new consensus model
+     */
+    static ConsensusModel create(SimulationConfig config, Consumer<Round> roundHandler, Clock clock) {
+        return switch (config.consensusModel()) {
+            case RANDOM -> new Consensus(roundHandler, config.numOfNodes(), config.seed(), clock);
+            case GOSSIP -> new GossipConsensus(roundHandler, config, clock);
+        };
+    }
+}
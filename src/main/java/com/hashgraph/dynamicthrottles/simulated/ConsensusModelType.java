@@ -0,0 +1,11 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+/**
+ * The available {@link ConsensusModel} implementations.
+ */
+public enum ConsensusModelType {
+    /** {@link Consensus}, rounds of a random 50 to 400 queued events with no notion of latency */
+    RANDOM,
+    /** {@link GossipConsensus}, gossip latency between node pairs, stake weighted supermajority and backlog delay */
+    GOSSIP
+}
@@ -0,0 +1,141 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.metrics.MetricsSnapshot;
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs consensus as a pipeline of stages so node event creation never waits on round formation or on delivering rounds
+ * to nodes. Nodes hand events to a lock-free inbox, a single consensus thread takes them off and forms rounds with
+ * the configured {@link ConsensusModel}, and a separate delivery thread hands each round to the round handler, which fans out to the
+ * nodes. Each stage has {@link StageMetrics} for its queue depth, wait and service time.
+ * <p>
+ * In virtual time there is only the simulation thread, so events go straight to consensus and rounds straight to the
+ * round handler, exactly as if the stages had no latency.
+ */
+public class ConsensusPipeline {
+    private final Logger logger = System.getLogger(ConsensusPipeline.class.getName());
+    /** The round formation, only called from the consensus stage thread */
+    public final ConsensusModel consensus;
+    /** Metrics for events waiting for and being added to consensus */
+    public final StageMetrics consensusStageMetrics = new StageMetrics("consensus");
+    /** Metrics for rounds waiting for and being delivered to the nodes */
+    public final StageMetrics deliveryStageMetrics = new StageMetrics("delivery");
+    private final Stage<Event> consensusStage;
+    private final Stage<Round> deliveryStage;
+
+    /**
+     * Create a consensus pipeline, in real time this starts the stage threads.
+     *
+     * @param roundHandler called with each round, on the delivery thread in real time
+     * @param config the simulation settings, selects and configures the consensus model
+     * @param scheduler the simulation scheduler, real time or virtual time
+     */
+    public ConsensusPipeline(Consumer<Round> roundHandler, SimulationConfig config, Scheduler scheduler) {
+        if (scheduler.isRealTime()) {
+            this.deliveryStage = new Stage<>(deliveryStageMetrics, scheduler.clock(), roundHandler);
+            this.consensus = ConsensusModel.create(config, deliveryStage::submit, scheduler.clock());
+            this.consensusStage = new Stage<>(consensusStageMetrics, scheduler.clock(), consensus::addEvent);
+            for (Stage<?> stage : List.of(consensusStage, deliveryStage)) {
+                final Thread thread = scheduler.threadBuilder()
+                        .name(stage.metrics.name() + "-stage")
+                        .uncaughtExceptionHandler((t, e) ->
+                                logger.log(Level.ERROR, "Consensus pipeline thread interrupted: " + e.getMessage(), e))
+                        .unstarted(stage);
+                stage.thread = thread;
+                thread.start();
+            }
+        } else {
+            this.deliveryStage = null;
+            this.consensusStage = null;
+            this.consensus = ConsensusModel.create(config, roundHandler, scheduler.clock());
+        }
+    }
+
+    /**
+     * Add an event gossiped by a node, lock-free and never blocks in real time.
+     *
+     * @param event the event to add
+     */
+    public void addEvent(Event event) {
+        if (consensusStage == null) {
+            consensus.addEvent(event);
+        } else {
+            consensusStage.submit(event);
+        }
+    }
+
+    /**
+     * Add each stage's metrics to a registry.
+     *
+     * @param registry the registry to add to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        consensusStageMetrics.registerMetrics(registry);
+        deliveryStageMetrics.registerMetrics(registry);
+    }
+
+    /**
+     * Get each stage's metrics from a registry snapshot.
+     *
+     * @param snapshot a snapshot of the registry the stages were registered with
+     * @return the consensus stage snapshot followed by the delivery stage snapshot
+     */
+    public List<StageMetrics.Snapshot> getStageMetrics(MetricsSnapshot snapshot) {
+        return List.of(consensusStageMetrics.getSnapshot(snapshot), deliveryStageMetrics.getSnapshot(snapshot));
+    }
+
+    /**
+     * A pipeline stage, a lock-free queue consumed by one thread that parks while the queue is empty.
+     */
+    private static final class Stage<T> implements Runnable {
+        /** Queued item with the time it was queued */
+        private record Queued<T>(T item, long queuedNanos) {}
+
+        private final ConcurrentLinkedQueue<Queued<T>> queue = new ConcurrentLinkedQueue<>();
+        private final StageMetrics metrics;
+        private final Clock clock;
+        private final Consumer<T> handler;
+        private volatile Thread thread;
+
+        private Stage(StageMetrics metrics, Clock clock, Consumer<T> handler) {
+            this.metrics = metrics;
+            this.clock = clock;
+            this.handler = handler;
+        }
+
+        private void submit(T item) {
+            queue.add(new Queued<>(item, clock.nanoTime()));
+            metrics.enqueued();
+            final Thread consumer = thread;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final Queued<T> queued = queue.poll();
+                if (queued == null) {
+                    // woken by the next submit, or after a millisecond in case the thread was not yet known to it
+                    LockSupport.parkNanos(this, 1_000_000);
+                } else {
+                    final long startNanos = clock.nanoTime();
+                    handler.accept(queued.item());
+                    metrics.processed(startNanos - queued.queuedNanos(), clock.nanoTime() - startNanos);
+                }
+            }
+        }
+    }
+}
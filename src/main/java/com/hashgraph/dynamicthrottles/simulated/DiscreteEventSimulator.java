@@ -0,0 +1,112 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+import com.hashgraph.dynamicthrottles.time.Clock;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import java.util.PriorityQueue;
+
+/**
+ * Discrete event simulation engine. Instead of threads sleeping against the wall clock, all timed work is kept in a
+ * priority queue ordered by virtual time and run one after another on the calling thread, jumping the virtual clock
+ * straight to the time of the next event. This lets hours of simulated load run in seconds and makes runs repeatable,
+ * as there is no thread scheduling involved.
+ * <p>
+ * This class is not thread-safe, it and every task it runs must only be used from the thread calling
+ * {@link #runFor(long)}.
+ */
+public class DiscreteEventSimulator implements Scheduler {
+    /**
+     * A task scheduled at a point in virtual time. The sequence number keeps tasks scheduled for the same time in the
+     * order they were scheduled.
+     */
+    private record TimedEvent(long timeNanos, long sequence, Runnable task) implements Comparable<TimedEvent> {
+        @Override
+        public int compareTo(TimedEvent other) {
+            final int compareTime = Long.compare(timeNanos, other.timeNanos);
+            return compareTime != 0 ? compareTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<TimedEvent> eventQueue = new PriorityQueue<>();
+    /** The current virtual time in nanoseconds since the start of the simulation */
+    private long nowNanos = 0;
+    /** Counter for tie-breaking events at the same time */
+    private long nextSequence = 0;
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return nowNanos;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return nowNanos / 1_000_000;
+        }
+    };
+
+    @Override
+    public Clock clock() {
+        return clock;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return false;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayNanos) {
+        if (delayNanos < 0) {
+            throw new IllegalArgumentException("delayNanos must be non-negative");
+        }
+        eventQueue.add(new TimedEvent(nowNanos + delayNanos, nextSequence++, task));
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable task, long initialDelayNanos, long periodNanos) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("periodNanos must be positive");
+        }
+        schedule(new Runnable() {
+            private long nextRunNanos = nowNanos + initialDelayNanos;
+
+            @Override
+            public void run() {
+                task.run();
+                nextRunNanos += periodNanos;
+                schedule(this, nextRunNanos - nowNanos);
+            }
+        }, initialDelayNanos);
+    }
+
+    /**
+     * Run all events up to and including the given virtual time, then leave the clock at that time.
+     *
+     * @param timeNanos the virtual time to run until in nanoseconds since the start of the simulation
+     */
+    public void runUntil(long timeNanos) {
+        while (!eventQueue.isEmpty() && eventQueue.peek().timeNanos() <= timeNanos) {
+            final TimedEvent event = eventQueue.poll();
+            nowNanos = event.timeNanos();
+            event.task().run();
+        }
+        nowNanos = Math.max(nowNanos, timeNanos);
+    }
+
+    /**
+     * Run the simulation for a span of virtual time from the current time.
+     *
+     * @param durationNanos the amount of virtual time to run in nanoseconds
+     */
+    public void runFor(long durationNanos) {
+        runUntil(nowNanos + durationNanos);
+    }
+
+    /**
+     * Get the number of events waiting to run.
+     *
+     * @return the number of pending events
+     */
+    public int pendingEvents() {
+        return eventQueue.size();
+    }
+}
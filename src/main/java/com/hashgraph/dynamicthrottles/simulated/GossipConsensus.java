@@ -0,0 +1,196 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.impl.RoundSummarizer;
+import com.hashgraph.dynamicthrottles.model.Event;
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A consensus model with gossip latency, stake and consensus delay. It is a model of when events reach consensus, not
+ * an implementation of hashgraph.
+ * <ul>
+ *     <li>Each pair of nodes has a base gossip latency, drawn uniformly between gossipLatencyMinMillis and
+ *     gossipLatencyMaxMillis, and each event's latency to each node is that base times a lognormal jitter.</li>
+ *     <li>An event has been seen by a supermajority once nodes with more than 2/3 of the stake have received it,
+ *     stake per node falls off as 1/nodeId^stakeSkew so 0 is equal stake.</li>
+ *     <li>An event is ready for consensus consensusDelayMillis after being seen by a supermajority, plus
+ *     consensusDelayPerEventMicros for every event waiting for consensus when it was created, so consensus time grows
+ *     with backlog.</li>
+ *     <li>A round is formed from all ready events once ready events created since the previous round come from nodes
+ *     with more than 2/3 of the stake, as a new round needs a supermajority of nodes to build on the last.</li>
+ * </ul>
+ * Time only moves forward when events are added, at 500 events a second across the network that is a resolution of a
+ * couple of milliseconds.
+ */
+public class GossipConsensus implements ConsensusModel {
+    /** An event waiting for consensus, with the time it was created and the time it is ready for consensus */
+    private record PendingEvent(Event event, long createdNanos, long readyNanos, long sequence) {}
+
+    private final Consumer<Round> roundHandler;
+    private final Clock clock;
+    private final Random random;
+    public final AtomicLong currentRound = new AtomicLong(0);
+    /** Computes each round's summary once, for all nodes to share */
+    private final RoundSummarizer roundSummarizer = new RoundSummarizer();
+    private final int numberOfNodes;
+    /** Base one way gossip latency between each pair of nodes in nanoseconds, indexed by node id */
+    private final double[][] pairLatencyNanos;
+    /** Sigma of the lognormal jitter applied to each event's latency */
+    private final double latencyJitter;
+    /** Stake of each node, indexed by node id */
+    private final double[] stake;
+    /** Stake needed for a supermajority, more than 2/3 of the total */
+    private final double superMajorityStake;
+    private final long consensusDelayNanos;
+    private final long consensusDelayPerEventNanos;
+    /** Events not yet ready for consensus, in order of ready time */
+    private final PriorityQueue<PendingEvent> pending = new PriorityQueue<>((a, b) -> a.readyNanos() != b.readyNanos()
+            ? Long.compare(a.readyNanos(), b.readyNanos()) : Long.compare(a.sequence(), b.sequence()));
+    /** Events ready for consensus, waiting for the next round */
+    private final List<Event> ready = new ArrayList<>();
+    /** Scratch arrival time at each node for the event being added, indexed by node id */
+    private final long[] arrivalNanos;
+    /** Scratch node ids sorted by arrival time */
+    private final int[] arrivalOrder;
+    /** Whether each node has a ready event created since the previous round, indexed by node id */
+    private final boolean[] inNextRound;
+    private double nextRoundStake = 0;
+    private long lastRoundNanos;
+    private long sequence = 0;
+    private volatile int consensusQueueSize = 0;
+
+    /**
+     * Create a gossip consensus model.
+     *
+     * @param roundHandler called with each round as it is formed
+     * @param config the simulation settings, for the number of nodes, seed and gossip model parameters
+     * @param clock the clock for timestamps and latencies
+     */
+    public GossipConsensus(Consumer<Round> roundHandler, SimulationConfig config, Clock clock) {
+        this.roundHandler = roundHandler;
+        this.clock = clock;
+        this.random = new Random(config.seed());
+        this.numberOfNodes = config.numOfNodes();
+        this.latencyJitter = config.gossipLatencyJitter();
+        this.consensusDelayNanos = Math.round(config.consensusDelayMillis() * 1_000_000);
+        this.consensusDelayPerEventNanos = Math.round(config.consensusDelayPerEventMicros() * 1_000);
+        // symmetric base latency per pair of nodes
+        pairLatencyNanos = new double[numberOfNodes + 1][numberOfNodes + 1];
+        for (int a = 1; a <= numberOfNodes; a++) {
+            for (int b = a + 1; b <= numberOfNodes; b++) {
+                final double latencyMillis = config.gossipLatencyMinMillis() + random.nextDouble()
+                        * (config.gossipLatencyMaxMillis() - config.gossipLatencyMinMillis());
+                pairLatencyNanos[a][b] = latencyMillis * 1_000_000;
+                pairLatencyNanos[b][a] = pairLatencyNanos[a][b];
+            }
+        }
+        stake = new double[numberOfNodes + 1];
+        double totalStake = 0;
+        for (int nodeId = 1; nodeId <= numberOfNodes; nodeId++) {
+            stake[nodeId] = 1 / Math.pow(nodeId, config.stakeSkew());
+            totalStake += stake[nodeId];
+        }
+        superMajorityStake = totalStake * 2 / 3;
+        arrivalNanos = new long[numberOfNodes + 1];
+        arrivalOrder = new int[numberOfNodes];
+        inNextRound = new boolean[numberOfNodes + 1];
+        lastRoundNanos = clock.nanoTime();
+    }
+
+    @Override
+    public void addEvent(Event event) {
+        final long now = clock.nanoTime();
+        final int creator = event.nodeId();
+        if (creator < 1 || creator > numberOfNodes) {
+            throw new IllegalArgumentException("event nodeId must be between 1 and " + numberOfNodes);
+        }
+        final long readyNanos = superMajoritySeenNanos(creator, now) + consensusDelayNanos
+                + consensusDelayPerEventNanos * (pending.size() + ready.size());
+        pending.add(new PendingEvent(event, now, readyNanos, sequence++));
+        // move events that are now ready, forming rounds as they allow
+        while (!pending.isEmpty() && pending.peek().readyNanos() <= now) {
+            final PendingEvent readyEvent = pending.poll();
+            ready.add(readyEvent.event());
+            final int nodeId = readyEvent.event().nodeId();
+            if (readyEvent.createdNanos() >= lastRoundNanos && !inNextRound[nodeId]) {
+                inNextRound[nodeId] = true;
+                nextRoundStake += stake[nodeId];
+                if (nextRoundStake > superMajorityStake) {
+                    formRound(now);
+                }
+            }
+        }
+        consensusQueueSize = pending.size() + ready.size();
+    }
+
+    /**
+     * Compute when an event has reached nodes with a supermajority of stake.
+     *
+     * @param creator the node that created the event
+     * @param createdNanos the time the event was created
+     * @return the time the event has been seen by a supermajority
+     */
+    private long superMajoritySeenNanos(int creator, long createdNanos) {
+        for (int nodeId = 1; nodeId <= numberOfNodes; nodeId++) {
+            final double latency = nodeId == creator ? 0 : pairLatencyNanos[creator][nodeId]
+                    * Math.exp(latencyJitter * random.nextGaussian() - latencyJitter * latencyJitter / 2);
+            arrivalNanos[nodeId] = createdNanos + (long) latency;
+            // insertion sort by arrival time, the number of nodes is small
+            int i = nodeId - 1;
+            while (i > 0 && arrivalNanos[arrivalOrder[i - 1]] > arrivalNanos[nodeId]) {
+                arrivalOrder[i] = arrivalOrder[i - 1];
+                i--;
+            }
+            arrivalOrder[i] = nodeId;
+        }
+        double seenStake = 0;
+        for (int nodeId : arrivalOrder) {
+            seenStake += stake[nodeId];
+            if (seenStake > superMajorityStake) {
+                return arrivalNanos[nodeId];
+            }
+        }
+        return arrivalNanos[arrivalOrder[numberOfNodes - 1]];
+    }
+
+    /**
+     * Form a round from all the ready events and hand it to the round handler.
+     */
+    private void formRound(long now) {
+        final long roundConsensusTimestamp = clock.currentTimeMillis();
+        final List<PostConsensusEvent> roundEvents = new ArrayList<>(ready.size());
+        for (int i = 0; i < ready.size(); i++) {
+            roundEvents.add(new PostConsensusEvent(ready.get(i), roundConsensusTimestamp + i));
+        }
+        ready.clear();
+        Arrays.fill(inNextRound, false);
+        nextRoundStake = 0;
+        lastRoundNanos = now;
+        final Round round = new Round(
+                currentRound.incrementAndGet(),
+                roundEvents,
+                roundConsensusTimestamp,
+                roundSummarizer.summarize(roundEvents),
+                now);
+        roundHandler.accept(round);
+    }
+
+    @Override
+    public int consensusQueueSize() {
+        return consensusQueueSize;
+    }
+
+    @Override
+    public long currentRound() {
+        return currentRound.get();
+    }
+}
@@ -0,0 +1,155 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+import com.hashgraph.dynamicthrottles.model.PostConsensusEvent;
+import com.hashgraph.dynamicthrottles.model.Round;
+import com.hashgraph.dynamicthrottles.model.Transaction;
+import com.hashgraph.dynamicthrottles.model.TransactionBatch;
+import com.hashgraph.dynamicthrottles.time.WorkSimulator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executes a round's transactions on a pool of worker threads, as an alternative to executing the whole round serially
+ * on one thread. Transactions with the same conflict key, the account or contract they modify, conflict so run in
+ * round order on one worker, transactions with different keys run in parallel. Transactions with no key conflict with
+ * nothing.
+ * <p>
+ * A round is split into groups, one per key in order of first appearance, and each group is handed to the next free
+ * worker. In real time that is a fixed thread pool, in virtual time the same list scheduling is done on paper to
+ * compute how long the round takes.
+ * <p>
+ * This class is not thread-safe, each node's execution thread should have its own.
+ */
+public class ParallelRoundExecutor {
+    private final int threads;
+    private final ThreadFactory threadFactory;
+    private final WorkSimulator workSimulator;
+    /** The worker pool, created on first real time execution so none is created in virtual time */
+    private ExecutorService pool;
+    /** Scratch total work of each group in the current round, in order of first appearance */
+    private long[] groupWork = new long[64];
+    private int groupCount = 0;
+    /** Scratch open addressing table from conflict key to group index, a slot is in use if its stamp is current */
+    private int[] tableKeys = new int[256];
+    private int[] tableGroups = new int[256];
+    private int[] tableStamps = new int[256];
+    private int stamp = 0;
+    /** Scratch busy time of each worker when scheduling on paper */
+    private final long[] workerLoads;
+
+    /**
+     * Create a parallel round executor.
+     *
+     * @param threads the number of worker threads
+     * @param threadFactory creates the worker threads, platform or virtual
+     * @param workSimulator how to simulate the work in real time
+     */
+    public ParallelRoundExecutor(int threads, ThreadFactory threadFactory, WorkSimulator workSimulator) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        this.threadFactory = threadFactory;
+        this.workSimulator = workSimulator;
+        this.workerLoads = new long[threads];
+    }
+
+    /**
+     * Compute how long a round takes to execute on the worker pool, used in virtual time.
+     *
+     * @param round the round
+     * @return the time from starting the round until its last transaction completes, in nanoseconds
+     */
+    public long executionTimeNanos(Round round) {
+        groupByKey(round);
+        Arrays.fill(workerLoads, 0);
+        long makespan = 0;
+        for (int g = 0; g < groupCount; g++) {
+            // the next group goes to the worker that is free first
+            int worker = 0;
+            for (int w = 1; w < threads; w++) {
+                if (workerLoads[w] < workerLoads[worker]) {
+                    worker = w;
+                }
+            }
+            workerLoads[worker] += groupWork[g];
+            makespan = Math.max(makespan, workerLoads[worker]);
+        }
+        return makespan;
+    }
+
+    /**
+     * Execute a round on the worker pool in real time, returns when every transaction has completed.
+     *
+     * @param round the round
+     */
+    public void execute(Round round) {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(threads, threadFactory);
+        }
+        groupByKey(round);
+        final CountDownLatch done = new CountDownLatch(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            final long work = groupWork[g];
+            pool.execute(() -> {
+                // the group's transactions run one after another, so simulate them as one block of work
+                workSimulator.simulateWork(work);
+                done.countDown();
+            });
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Split a round's transactions into groups by conflict key, filling groupWork and groupCount.
+     */
+    private void groupByKey(Round round) {
+        final int transactionCount = round.summary().transactionCount();
+        if (groupWork.length < transactionCount) {
+            groupWork = new long[Integer.highestOneBit(transactionCount) << 1];
+        }
+        if (tableKeys.length < transactionCount * 2) {
+            final int tableSize = Integer.highestOneBit(transactionCount * 2) << 1;
+            tableKeys = new int[tableSize];
+            tableGroups = new int[tableSize];
+            tableStamps = new int[tableSize];
+            stamp = 0;
+        }
+        stamp++;
+        groupCount = 0;
+        final int mask = tableKeys.length - 1;
+        final List<PostConsensusEvent> events = round.events();
+        for (int e = 0; e < events.size(); e++) {
+            final TransactionBatch transactions = events.get(e).event().transactions();
+            for (int i = 0; i < transactions.size(); i++) {
+                final int key = transactions.conflictKey(i);
+                final int work = transactions.workInNanos(i);
+                if (key == Transaction.NO_CONFLICT_KEY) {
+                    groupWork[groupCount++] = work;
+                    continue;
+                }
+                final int hash = key * 0x9E3779B9;
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (tableStamps[slot] == stamp && tableKeys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                if (tableStamps[slot] == stamp) {
+                    groupWork[tableGroups[slot]] += work;
+                } else {
+                    tableStamps[slot] = stamp;
+                    tableKeys[slot] = key;
+                    tableGroups[slot] = groupCount;
+                    groupWork[groupCount++] = work;
+                }
+            }
+        }
+    }
+}
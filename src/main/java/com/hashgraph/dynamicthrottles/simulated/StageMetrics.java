@@ -0,0 +1,104 @@
+package com.hashgraph.dynamicthrottles.simulated;
+
+import com.hashgraph.dynamicthrottles.metrics.Counter;
+import com.hashgraph.dynamicthrottles.metrics.HistogramSnapshot;
+import com.hashgraph.dynamicthrottles.metrics.LogLinearHistogram;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.metrics.MetricsSnapshot;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Metrics for one stage of the {@link ConsensusPipeline}, the depth of its input queue and how long items wait in the
+ * queue and take to process. Updated by the stage's producers and its single consumer thread, read through a
+ * {@link MetricsRegistry} under "stage.&lt;name&gt;.".
+ */
+public final class StageMetrics {
+    private final String name;
+    private final AtomicInteger queueDepth = new AtomicInteger(0);
+    private final Counter processed = new Counter();
+    private final LogLinearHistogram waitNanos = new LogLinearHistogram();
+    private final Counter totalServiceNanos = new Counter();
+
+    /**
+     * Snapshot of a stage's metrics over an interval.
+     *
+     * @param name the stage name
+     * @param queueDepth the number of items queued for the stage when the snapshot was taken
+     * @param processed the number of items processed in the interval
+     * @param meanWaitNanos the mean time items waited in the queue, in nanoseconds
+     * @param maxWaitNanos the longest time an item waited in the queue, in nanoseconds
+     * @param meanServiceNanos the mean time taken to process an item, in nanoseconds
+     */
+    public record Snapshot(String name, int queueDepth, long processed, double meanWaitNanos, long maxWaitNanos,
+                           double meanServiceNanos) {
+        @Override
+        public String toString() {
+            return "%s[q=%d, n=%d, wait=%.1fus, maxWait=%.1fus, service=%.1fus]".formatted(name, queueDepth, processed,
+                    meanWaitNanos / 1000d, maxWaitNanos / 1000d, meanServiceNanos / 1000d);
+        }
+    }
+
+    public StageMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Add this stage's metrics to a registry.
+     *
+     * @param registry the registry to add to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        final String prefix = "stage." + name + ".";
+        registry.gauge(prefix + "queueDepth", queueDepth::get);
+        registry.register(prefix + "processed", processed);
+        registry.register(prefix + "waitNanos", waitNanos);
+        registry.register(prefix + "serviceNanos", totalServiceNanos);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Called by a producer when it adds an item to the stage's queue */
+    void enqueued() {
+        queueDepth.incrementAndGet();
+    }
+
+    /**
+     * Called by the stage thread when it has processed an item.
+     *
+     * @param waitNanos the time the item spent in the queue
+     * @param serviceNanos the time taken to process the item
+     */
+    void processed(long waitNanos, long serviceNanos) {
+        queueDepth.decrementAndGet();
+        processed.increment();
+        this.waitNanos.record(waitNanos);
+        totalServiceNanos.add(serviceNanos);
+    }
+
+    /**
+     * Get the number of items waiting for the stage, O(1).
+     *
+     * @return the queue depth
+     */
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Get this stage's metrics from a registry snapshot it was registered with.
+     *
+     * @param snapshot an interval snapshot, or a cumulative one for the metrics since the start
+     * @return snapshot of the stage's metrics
+     */
+    public Snapshot getSnapshot(MetricsSnapshot snapshot) {
+        final String prefix = "stage." + name + ".";
+        final long count = snapshot.counter(prefix + "processed");
+        final HistogramSnapshot wait = snapshot.histogram(prefix + "waitNanos");
+        return new Snapshot(name, (int) snapshot.gauge(prefix + "queueDepth"), count,
+                wait.mean(),
+                wait.max(),
+                count == 0 ? 0 : snapshot.counter(prefix + "serviceNanos") / (double) count);
+    }
+}
@@ -0,0 +1,315 @@
+package com.hashgraph.dynamicthrottles.sweep;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.LoadGenerator;
+import com.hashgraph.dynamicthrottles.Node;
+import com.hashgraph.dynamicthrottles.Simulation;
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.metrics.LogLinearHistogram;
+import com.hashgraph.dynamicthrottles.metrics.MetricsSnapshot;
+import com.hashgraph.dynamicthrottles.replay.ReplayDriver;
+import com.hashgraph.dynamicthrottles.replay.ReplayReader;
+import com.hashgraph.dynamicthrottles.simulated.DiscreteEventSimulator;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Headless command line runner that sweeps throttle parameters. It builds a grid, or a random sample, of
+ * {@link SimulationConfig}s, runs each one as an isolated network in virtual time on a fork-join pool using all cores,
+ * and writes a CSV table of stability and throughput metrics, one row per configuration.
+ * <p>
+ * Parameters are named by {@link SimulationConfig} component, for example:
+ * <pre>
+ *   ParameterSweep --duration 600 emaSmoothingFactor=0.01,0.05,0.2 averagingWindowSize=1:8:8
+ *   ParameterSweep --random 200 tokenBucketCapacity=1000:50000 maxRefillRate=5000:30000
+ * </pre>
+ */
+public final class ParameterSweep {
+    private static final String USAGE = """
+            Usage: ParameterSweep [options] name=values...
+              --duration <seconds>   simulated seconds to measure for each configuration (default 300)
+              --warmup <seconds>     simulated seconds to run before measuring (default 30)
+              --random <n>           sample n random configurations instead of the full grid
+              --seed <seed>          seed for random sampling (default 1)
+              --parallelism <n>      number of simulations to run at once (default all cores)
+              --output <file>        write the CSV table to a file instead of standard out
+              --replay <file>        replay a recorded run in every configuration instead of generating load and
+                                     forming rounds, so all configurations see identical input
+            name is a SimulationConfig parameter, values is a comma separated list "a,b,c", or a range "min:max:steps"
+            for a grid or "min:max" when sampling randomly.""";
+    /** Interval between samples of health, token rate and queue depth */
+    private static final long SAMPLE_INTERVAL_NANOS = NANOS_PER_SECOND / 10;
+    /** Quorum health below this counts as unhealthy */
+    private static final double UNHEALTHY_THRESHOLD = 0.5;
+
+    /**
+     * A parameter to sweep, either a list of values or a numeric range.
+     *
+     * @param name the SimulationConfig component name
+     * @param values the explicit values, or null for a range
+     * @param min the minimum of the range
+     * @param max the maximum of the range
+     * @param steps the number of grid steps across the range, 0 for random sampling only
+     */
+    private record ParameterSpec(String name, List<String> values, double min, double max, int steps) {
+        static ParameterSpec parse(String arg) {
+            final int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=values but got: " + arg);
+            }
+            final String name = arg.substring(0, equals);
+            final String[] range = arg.substring(equals + 1).split(":");
+            if (range.length == 1) {
+                return new ParameterSpec(name, List.of(range[0].split(",")), 0, 0, 0);
+            }
+            return new ParameterSpec(name, null, Double.parseDouble(range[0]), Double.parseDouble(range[1]),
+                    range.length > 2 ? Integer.parseInt(range[2]) : 0);
+        }
+
+        List<String> gridValues() {
+            if (values != null) {
+                return values;
+            }
+            if (steps < 1) {
+                throw new IllegalArgumentException("Range for " + name + " needs a step count for a grid sweep");
+            }
+            final List<String> result = new ArrayList<>();
+            for (int i = 0; i < steps; i++) {
+                result.add(Double.toString(steps == 1 ? min : min + (max - min) * i / (steps - 1)));
+            }
+            return result;
+        }
+
+        String randomValue(Random random) {
+            return values != null
+                    ? values.get(random.nextInt(values.size()))
+                    : Double.toString(min + (max - min) * random.nextDouble());
+        }
+    }
+
+    /**
+     * The metrics measured for one configuration.
+     *
+     * @param parameters the swept parameter values of this configuration
+     * @param acceptedTps transactions accepted by nodes per second
+     * @param acceptedPercentage percentage of transaction submissions that were accepted
+     * @param consensusTps transactions reaching consensus per second
+     * @param workUtilization seconds of transaction work reaching consensus per second, 1.0 is one node fully busy
+     * @param meanQuorumHealth mean quorum health across nodes and samples
+     * @param quorumHealthStdDev standard deviation of quorum health, lower is more stable
+     * @param unhealthyPercentage percentage of samples with quorum health below UNHEALTHY_THRESHOLD
+     * @param meanTokenRate mean total token refill rate across all nodes
+     * @param tokenRateCv coefficient of variation of the total token rate, lower is more stable
+     * @param meanExecuteQueue mean rounds waiting to execute per node
+     * @param maxExecuteQueue maximum rounds waiting to execute on any node
+     * @param latencyP50Millis median end to end transaction latency, submit to execution, in milliseconds
+     * @param latencyP99Millis 99th percentile end to end transaction latency in milliseconds
+     * @param latencyP999Millis 99.9th percentile end to end transaction latency in milliseconds
+     */
+    private record SweepResult(Map<String, String> parameters, double acceptedTps, double acceptedPercentage,
+            double consensusTps, double workUtilization, double meanQuorumHealth, double quorumHealthStdDev,
+            double unhealthyPercentage, double meanTokenRate, double tokenRateCv, double meanExecuteQueue,
+            int maxExecuteQueue, double latencyP50Millis, double latencyP99Millis, double latencyP999Millis) {
+        static final String HEADER = "acceptedTps,acceptedPct,consensusTps,workUtilization,meanQuorumHealth,"
+                + "quorumHealthStdDev,unhealthyPct,meanTokenRate,tokenRateCv,meanExecuteQueue,maxExecuteQueue,"
+                + "latencyP50Ms,latencyP99Ms,latencyP999Ms";
+
+        String toCsv() {
+            return String.join(",", parameters.values())
+                    + ",%.1f,%.2f,%.1f,%.4f,%.4f,%.4f,%.2f,%.1f,%.4f,%.2f,%d,%.2f,%.2f,%.2f"
+                    .formatted(acceptedTps, acceptedPercentage, consensusTps, workUtilization, meanQuorumHealth,
+                            quorumHealthStdDev, unhealthyPercentage, meanTokenRate, tokenRateCv, meanExecuteQueue,
+                            maxExecuteQueue, latencyP50Millis, latencyP99Millis, latencyP999Millis);
+        }
+    }
+
+    /** Streaming mean and variance using Welford's algorithm */
+    private static final class RunningStats {
+        private long count = 0;
+        private double mean = 0;
+        private double m2 = 0;
+
+        void add(double value) {
+            count++;
+            final double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        double mean() {
+            return mean;
+        }
+
+        double stdDev() {
+            return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+        }
+    }
+
+    private ParameterSweep() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        long durationSeconds = 300;
+        long warmupSeconds = 30;
+        int randomSamples = 0;
+        long seed = 1;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Path output = null;
+        Path replay = null;
+        final List<ParameterSpec> specs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--duration" -> durationSeconds = Long.parseLong(args[++i]);
+                case "--warmup" -> warmupSeconds = Long.parseLong(args[++i]);
+                case "--random" -> randomSamples = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--parallelism" -> parallelism = Integer.parseInt(args[++i]);
+                case "--output" -> output = Path.of(args[++i]);
+                case "--replay" -> replay = Path.of(args[++i]);
+                case "--help", "-h" -> {
+                    System.out.println(USAGE);
+                    return;
+                }
+                default -> specs.add(ParameterSpec.parse(args[i]));
+            }
+        }
+        final List<Map<String, String>> points = randomSamples > 0
+                ? randomPoints(specs, randomSamples, new Random(seed))
+                : gridPoints(specs);
+        // build all the configs up front so any bad parameter fails before running anything
+        final List<Callable<SweepResult>> tasks = new ArrayList<>();
+        for (Map<String, String> point : points) {
+            SimulationConfig config = SimulationConfig.DEFAULT;
+            for (Map.Entry<String, String> parameter : point.entrySet()) {
+                config = config.with(parameter.getKey(), parameter.getValue());
+            }
+            final SimulationConfig finalConfig = config;
+            final long duration = durationSeconds;
+            final long warmup = warmupSeconds;
+            final Path replayFile = replay;
+            tasks.add(() -> runSimulation(point, finalConfig, warmup, duration, replayFile));
+        }
+        System.err.printf("Running %,d configurations on %d threads%n", tasks.size(), parallelism);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (PrintStream out = output == null ? System.out : new PrintStream(Files.newOutputStream(output))) {
+            final String parameterHeader = String.join(",", specs.stream().map(ParameterSpec::name).toList());
+            out.println(parameterHeader.isEmpty() ? SweepResult.HEADER : parameterHeader + "," + SweepResult.HEADER);
+            for (Future<SweepResult> result : pool.invokeAll(tasks)) {
+                out.println(result.get().toCsv());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Build the cartesian product of all parameter values.
+     */
+    private static List<Map<String, String>> gridPoints(List<ParameterSpec> specs) {
+        List<Map<String, String>> points = List.of(new LinkedHashMap<>());
+        for (ParameterSpec spec : specs) {
+            final List<Map<String, String>> expanded = new ArrayList<>();
+            for (Map<String, String> point : points) {
+                for (String value : spec.gridValues()) {
+                    final Map<String, String> newPoint = new LinkedHashMap<>(point);
+                    newPoint.put(spec.name(), value);
+                    expanded.add(newPoint);
+                }
+            }
+            points = expanded;
+        }
+        return points;
+    }
+
+    /**
+     * Build random samples with each parameter picked independently.
+     */
+    private static List<Map<String, String>> randomPoints(List<ParameterSpec> specs, int samples, Random random) {
+        final List<Map<String, String>> points = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            final Map<String, String> point = new LinkedHashMap<>();
+            for (ParameterSpec spec : specs) {
+                point.put(spec.name(), spec.randomValue(random));
+            }
+            points.add(point);
+        }
+        return points;
+    }
+
+    /**
+     * Run one isolated simulation in virtual time and measure it after the warmup.
+     *
+     * @param replay a recorded run to replay, or null to generate load
+     */
+    private static SweepResult runSimulation(Map<String, String> parameters, SimulationConfig config,
+            long warmupSeconds, long durationSeconds, Path replay) throws IOException {
+        final DiscreteEventSimulator simulator = new DiscreteEventSimulator();
+        final Simulation simulation = new Simulation(config, simulator);
+        if (replay != null) {
+            simulation.replayFrom(new ReplayReader(replay));
+        }
+        simulation.start();
+        simulator.runFor(warmupSeconds * NANOS_PER_SECOND);
+        // snapshot the metrics so only the measured period counts
+        final MetricsSnapshot afterWarmup = simulation.metrics.snapshot();
+        final RunningStats quorumHealth = new RunningStats();
+        final RunningStats tokenRate = new RunningStats();
+        final RunningStats executeQueue = new RunningStats();
+        final long[] unhealthySamples = {0};
+        final int[] maxExecuteQueue = {0};
+        // sample at the end of each interval, runFor() includes its end time so a sample at the start would be one extra
+        simulator.scheduleAtFixedRate(() -> {
+            double totalTokenRate = 0;
+            for (Node node : simulation.nodes) {
+                final double health = node.globalIntakeController.quorumHealth.get() / 100d;
+                quorumHealth.add(health);
+                if (health < UNHEALTHY_THRESHOLD) {
+                    unhealthySamples[0]++;
+                }
+                totalTokenRate += node.globalIntakeController.getCurrentTokenRate();
+                final int queueSize = node.roundsToExecuteQueue.size();
+                executeQueue.add(queueSize);
+                maxExecuteQueue[0] = Math.max(maxExecuteQueue[0], queueSize);
+            }
+            tokenRate.add(totalTokenRate);
+        }, SAMPLE_INTERVAL_NANOS, SAMPLE_INTERVAL_NANOS);
+        simulator.runFor(durationSeconds * NANOS_PER_SECOND);
+        final MetricsSnapshot measured = simulation.metrics.snapshot().since(afterWarmup);
+        // count at the nodes and include replayed submissions, so replays measure the same as generated load
+        final long submissions = measured.counter(LoadGenerator.ACCEPTED_METRIC)
+                + measured.counter(LoadGenerator.REJECTED_METRIC) + measured.counter(ReplayDriver.TRANSACTIONS_METRIC);
+        long accepted = 0;
+        final LogLinearHistogram endToEnd = new LogLinearHistogram();
+        for (Node node : simulation.nodes) {
+            accepted += measured.counter("node." + node.nodeId() + ".ingestedTransactions");
+            endToEnd.add(measured.histogram("node." + node.nodeId() + ".latency.endToEnd"));
+        }
+        final long samples = (durationSeconds * NANOS_PER_SECOND / SAMPLE_INTERVAL_NANOS) * config.numOfNodes();
+        return new SweepResult(parameters,
+                accepted / (double) durationSeconds,
+                submissions == 0 ? 0 : 100.0 * accepted / submissions,
+                measured.counter(Simulation.TRANSACTIONS_METRIC) / (double) durationSeconds,
+                measured.counter(Simulation.TRANSACTION_WORK_NANOS_METRIC) / (double) (durationSeconds * NANOS_PER_SECOND),
+                quorumHealth.mean(),
+                quorumHealth.stdDev(),
+                100.0 * unhealthySamples[0] / Math.max(1, samples),
+                tokenRate.mean(),
+                tokenRate.mean() == 0 ? 0 : tokenRate.stdDev() / tokenRate.mean(),
+                executeQueue.mean(),
+                maxExecuteQueue[0],
+                endToEnd.valueAtPercentile(50) / 1e6,
+                endToEnd.valueAtPercentile(99) / 1e6,
+                endToEnd.valueAtPercentile(99.9) / 1e6);
+    }
+}
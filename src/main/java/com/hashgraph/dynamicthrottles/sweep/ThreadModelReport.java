@@ -0,0 +1,217 @@
+package com.hashgraph.dynamicthrottles.sweep;
+
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.Simulation;
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.time.Clock;
+import com.hashgraph.dynamicthrottles.time.RealTimeScheduler;
+import com.hashgraph.dynamicthrottles.time.Scheduler;
+import com.hashgraph.dynamicthrottles.time.ThreadModel;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless command line report comparing the platform and virtual thread models in real time. For each thread model
+ * and node count it runs a simulation under load and reports memory per node and scheduling jitter, how late each run
+ * of a fixed rate task, node event creation, starts compared to its schedule.
+ * <p>
+ * Simulations in real time can not be stopped, so each configuration runs in its own JVM with the same class path.
+ * <pre>
+ *   ThreadModelReport --nodes 5,100,250,500 --duration 20
+ * </pre>
+ */
+public final class ThreadModelReport {
+    private static final String USAGE = """
+            Usage: ThreadModelReport [options]
+              --nodes <n,n,...>      node counts to run (default 5,100,250,500)
+              --models <m,m,...>     thread models to run (default PLATFORM,VIRTUAL)
+              --duration <seconds>   real seconds to measure for each configuration (default 20)
+              --warmup <seconds>     real seconds to run before measuring, load starts after 5 (default 10)""";
+    private static final String HEADER = "threadModel,nodes,platformThreads,heapKbPerNode,rssKbPerNode,"
+            + "jitterP50Us,jitterP99Us,jitterMaxUs,acceptedTps";
+    /** The number of most recent lateness samples kept for percentiles */
+    private static final int SAMPLES = 1 << 16;
+
+    private ThreadModelReport() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> nodeCounts = List.of("5", "100", "250", "500");
+        List<String> models = List.of(ThreadModel.PLATFORM.name(), ThreadModel.VIRTUAL.name());
+        long durationSeconds = 20;
+        long warmupSeconds = 10;
+        String single = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--nodes" -> nodeCounts = List.of(args[++i].split(","));
+                case "--models" -> models = List.of(args[++i].toUpperCase().split(","));
+                case "--duration" -> durationSeconds = Long.parseLong(args[++i]);
+                case "--warmup" -> warmupSeconds = Long.parseLong(args[++i]);
+                case "--single" -> single = args[++i];
+                case "--help", "-h" -> {
+                    System.out.println(USAGE);
+                    return;
+                }
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i] + "\n" + USAGE);
+            }
+        }
+        if (single != null) {
+            // child JVM, run one configuration and print its result row
+            final String[] modelAndNodes = single.split(":");
+            System.out.println(runSingle(ThreadModel.valueOf(modelAndNodes[0]), Integer.parseInt(modelAndNodes[1]),
+                    warmupSeconds, durationSeconds));
+            return;
+        }
+        final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        System.out.println(HEADER);
+        for (String model : models) {
+            for (String nodes : nodeCounts) {
+                final List<String> command = new ArrayList<>(List.of(java, "-cp",
+                        System.getProperty("java.class.path"), ThreadModelReport.class.getName(),
+                        "--single", model + ":" + nodes.trim(),
+                        "--warmup", Long.toString(warmupSeconds), "--duration", Long.toString(durationSeconds)));
+                final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        System.out.println(line);
+                    }
+                }
+                process.waitFor();
+            }
+        }
+    }
+
+    /**
+     * Run one simulation in this JVM and measure it.
+     */
+    private static String runSingle(ThreadModel threadModel, int numOfNodes, long warmupSeconds,
+            long durationSeconds) {
+        final long heapBefore = usedHeapAfterGc();
+        final long rssBefore = residentSetSize();
+        final JitterMeasuringScheduler scheduler =
+                new JitterMeasuringScheduler(new RealTimeScheduler(numOfNodes + 1, threadModel));
+        final Simulation simulation = new Simulation(
+                SimulationConfig.DEFAULT.with("numOfNodes", Integer.toString(numOfNodes)), scheduler);
+        simulation.start();
+        LockSupport.parkNanos(warmupSeconds * NANOS_PER_SECOND);
+        scheduler.reset();
+        final long acceptedBefore = simulation.loadGenerator.acceptedTransactions.sum();
+        LockSupport.parkNanos(durationSeconds * NANOS_PER_SECOND);
+        final long accepted = simulation.loadGenerator.acceptedTransactions.sum() - acceptedBefore;
+        final long[] lateness = scheduler.latenessSamples();
+        final int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        final long heapAfter = usedHeapAfterGc();
+        final long rssAfter = residentSetSize();
+        return "%s,%d,%d,%.1f,%s,%.1f,%.1f,%.1f,%.1f".formatted(threadModel, numOfNodes, platformThreads,
+                (heapAfter - heapBefore) / 1024d / numOfNodes,
+                rssBefore < 0 ? "" : "%.1f".formatted((rssAfter - rssBefore) / 1024d / numOfNodes),
+                percentile(lateness, 0.5) / 1000d, percentile(lateness, 0.99) / 1000d,
+                percentile(lateness, 1.0) / 1000d, accepted / (double) durationSeconds);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Get the resident set size of this process from /proc, which includes platform thread stacks that are not part
+     * of the heap.
+     *
+     * @return the resident set size in bytes, or -1 if not available on this platform
+     */
+    private static long residentSetSize() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not linux
+        }
+        return -1;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Scheduler wrapper that records how late each run of a fixed rate task starts compared to its schedule.
+     */
+    private static final class JitterMeasuringScheduler implements Scheduler {
+        private final Scheduler delegate;
+        private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+        private final AtomicLong sampleCount = new AtomicLong(0);
+
+        private JitterMeasuringScheduler(Scheduler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Clock clock() {
+            return delegate.clock();
+        }
+
+        @Override
+        public boolean isRealTime() {
+            return delegate.isRealTime();
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayNanos) {
+            delegate.schedule(task, delayNanos);
+        }
+
+        @Override
+        public void scheduleAtFixedRate(Runnable task, long initialDelayNanos, long periodNanos) {
+            final long start = clock().nanoTime() + initialDelayNanos;
+            final AtomicLong runs = new AtomicLong(0);
+            delegate.scheduleAtFixedRate(() -> {
+                final long scheduled = start + runs.getAndIncrement() * periodNanos;
+                final long index = sampleCount.getAndIncrement();
+                samples.set((int) (index & (SAMPLES - 1)), Math.max(0, clock().nanoTime() - scheduled));
+                task.run();
+            }, initialDelayNanos, periodNanos);
+        }
+
+        @Override
+        public Thread.Builder threadBuilder() {
+            return delegate.threadBuilder();
+        }
+
+        void reset() {
+            sampleCount.set(0);
+        }
+
+        /**
+         * Get the recorded lateness samples since the last reset, sorted.
+         */
+        long[] latenessSamples() {
+            final int count = (int) Math.min(SAMPLES, sampleCount.get());
+            final long[] sorted = new long[count];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+/**
+ * The admission half of a throttle, decides transaction by transaction whether to admit it at the intake rate set by a
+ * {@link ThrottleController}. Tokens are transactions, or work nanoseconds with a cost aware intake, and are refilled
+ * at the refill rate up to the admission's capacity.
+ * <p>
+ * Implementations must be thread-safe, transactions are admitted from many threads while the rate is set from the
+ * round handling thread.
+ */
+public interface Admission {
+    /**
+     * Attempts to acquire a token immediately.
+     *
+     * @return true if a token was acquired, false otherwise.
+     */
+    boolean tryAcquire();
+
+    /**
+     * Attempts to acquire n tokens immediately, all or nothing.
+     *
+     * @param n the number of tokens to acquire
+     * @return true if all n tokens were acquired, false if none were or n is not positive.
+     */
+    boolean tryAcquire(int n);
+
+    /**
+     * Acquires as many tokens as are available up to n, in a single operation. Used to admit a prefix of a batch of
+     * transactions paying for one refill instead of one per transaction.
+     *
+     * @param n the maximum number of tokens to acquire
+     * @return the number of tokens acquired, between 0 and n
+     */
+    int acquireUpTo(int n);
+
+    /**
+     * Give back tokens acquired for transactions that were then not admitted, for example because the queue they were
+     * going to filled first. Tokens beyond capacity are lost, as with refills.
+     *
+     * @param n the number of tokens to give back, nothing is done if not positive
+     */
+    void refund(int n);
+
+    /**
+     * Set the refill rate, the intake rate chosen by the controller.
+     *
+     * @param tokensPerSecond the new refill rate
+     */
+    void setRefillRate(double tokensPerSecond);
+
+    /**
+     * Get current refill rate (for monitoring/debugging).
+     */
+    double getRefillRatePerSecond();
+
+    /**
+     * Get current token count (for monitoring/debugging).
+     */
+    double getCurrentTokens();
+}
@@ -0,0 +1,55 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+/**
+ * Additive increase, multiplicative decrease, as TCP congestion control. While quorum health is at or above
+ * TARGET_HEALTH the rate grows by a fixed step each round, when it falls below the rate is cut by a factor. After a cut
+ * the controller holds for a few rounds, as health lags intake by the time queued work takes to execute, so one
+ * overload is not punished again for every round it takes to show the cut worked.
+ */
+public class AimdRateController implements ThrottleController {
+    /** Additive increase per healthy round as a fraction of the max rate */
+    private static final double INCREASE_FRACTION = 0.02;
+    /** Rate multiplier on an unhealthy round */
+    private static final double DECREASE_FACTOR = 0.7;
+    /** Rounds to hold the rate after a decrease */
+    private static final int HOLD_ROUNDS = 3;
+    private final double minRate;
+    private final double maxRate;
+    private double rate;
+    private int holdRounds = 0;
+
+    /**
+     * @param minRate the lowest rate
+     * @param maxRate the highest rate
+     * @param initialRate the starting rate
+     */
+    public AimdRateController(double minRate, double maxRate, double initialRate) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = initialRate;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        if (holdRounds > 0) {
+            holdRounds--;
+        } else if (health.quorumHealth() >= TARGET_HEALTH) {
+            rate += INCREASE_FRACTION * maxRate;
+        } else {
+            rate *= DECREASE_FACTOR;
+            holdRounds = HOLD_ROUNDS;
+        }
+        rate = Math.max(minRate, Math.min(Math.min(maxRate, health.rateCeiling()), rate));
+        return rate;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "[aimd rate=%.2f, hold=%d]".formatted(rate, holdRounds);
+    }
+}
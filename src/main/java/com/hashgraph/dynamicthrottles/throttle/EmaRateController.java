@@ -0,0 +1,43 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+/**
+ * The original throttle, the target rate is linear in quorum health from the min rate at 0 to the max rate at 1, capped
+ * by the feed forward ceiling, and the rate moves towards the target by an EMA smoothing factor each round.
+ */
+public class EmaRateController implements ThrottleController {
+    private final double minRate;
+    private final double maxRate;
+    private final double smoothingFactor;
+    private double rate;
+
+    /**
+     * @param minRate the rate at health 0
+     * @param maxRate the rate at health 1
+     * @param initialRate the starting rate
+     * @param smoothingFactor EMA smoothing factor, 0 &lt; alpha &lt;= 1, lower is smoother
+     */
+    public EmaRateController(double minRate, double maxRate, double initialRate, double smoothingFactor) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.smoothingFactor = smoothingFactor;
+        this.rate = initialRate;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        final double targetRate = Math.max(minRate,
+                Math.min(health.rateCeiling(), minRate + health.quorumHealth() * (maxRate - minRate)));
+        rate = rate + smoothingFactor * (targetRate - rate);
+        return rate;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "[ema rate=%.2f]".formatted(rate);
+    }
+}
@@ -0,0 +1,30 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+/**
+ * A fixed intake rate that ignores health and the feed forward ceiling, the baseline other algorithms are compared to.
+ */
+public class FixedRateController implements ThrottleController {
+    private final double rate;
+
+    /**
+     * @param rate the intake rate
+     */
+    public FixedRateController(double rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        return rate;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "[fixed rate=%.2f]".formatted(rate);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+/**
+ * A TCP Vegas style gradient controller. Vegas compares the expected and actual throughput and moves the window by the
+ * gradient between them rather than waiting for loss. Here the gradient is quorum health over TARGET_HEALTH, clamped
+ * to [0.5, 1], so a slightly unhealthy quorum cuts the rate a little and a very unhealthy one by up to half. At or above
+ * target the gradient is 1 and the rate probes up by a fixed fraction of the max rate, an additive step like Vegas's
+ * one packet per round trip, so a rate cut close to the minimum recovers in seconds rather than minutes. The new rate
+ * is smoothed into the old one.
+ */
+public class GradientRateController implements ThrottleController {
+    /** Lowest gradient, the most one round can cut the rate before smoothing */
+    private static final double MIN_GRADIENT = 0.5;
+    /** Probe per healthy round as a fraction of the max rate */
+    private static final double PROBE_FRACTION = 0.02;
+    /** Weight of the new rate against the old one each round */
+    private static final double SMOOTHING_FACTOR = 0.2;
+    private final double minRate;
+    private final double maxRate;
+    private double rate;
+
+    /**
+     * @param minRate the lowest rate
+     * @param maxRate the highest rate
+     * @param initialRate the starting rate
+     */
+    public GradientRateController(double minRate, double maxRate, double initialRate) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = initialRate;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        final double gradient = Math.max(MIN_GRADIENT, Math.min(1, health.quorumHealth() / TARGET_HEALTH));
+        final double probe = gradient >= 1 ? PROBE_FRACTION * maxRate : 0;
+        final double newRate = rate * gradient + probe;
+        rate = rate + SMOOTHING_FACTOR * (newRate - rate);
+        rate = Math.max(minRate, Math.min(Math.min(maxRate, health.rateCeiling()), rate));
+        return rate;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "[gradient rate=%.2f]".formatted(rate);
+    }
+}
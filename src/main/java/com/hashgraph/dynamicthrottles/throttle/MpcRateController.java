@@ -0,0 +1,153 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+import static com.hashgraph.dynamicthrottles.Node.MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY;
+import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
+
+import com.hashgraph.dynamicthrottles.estimate.ExecutionCostEstimator;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+
+/**
+ * Model predictive control of the intake rate. The node's execute queue backlog, in work nanoseconds, is modelled as
+ * growing by the arrival rate of work minus the service rate each round:
+ * <pre>
+ *     backlog[k+1] = max(0, backlog[k] + (arrival[k] - service) * roundInterval)
+ * </pre>
+ * The service rate is the {@link ExecutionCostEstimator}'s capacity, the round interval and the work already on its way
+ * are the means of the last HISTORY_ROUNDS rounds. For the first DELAY_ROUNDS of the prediction arrival stays at the
+ * recent rate, as transactions already accepted are still passing through the incoming queues and consensus. After
+ * that it is the candidate rate times the work each token buys across the network, every node is assumed to run at the
+ * same rate. Each round the backlog is predicted HORIZON_ROUNDS ahead and the rate is chosen, by bisection, so the
+ * predicted backlog is TARGET_HEALTH's share of MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY rounds of recent mean size, that is
+ * so the predicted health is TARGET_HEALTH. Only the first step is applied, the next round predicts again from what
+ * actually happened.
+ * <p>
+ * The history is kept in fixed arrays and the search is a fixed number of predictions, so each update runs in bounded
+ * time without allocating, it is on the consensus delivery path. Until the history is full and the estimator has
+ * measured a round the rate stays at its initial value.
+ */
+public class MpcRateController implements ThrottleController {
+    /** Rounds of history the arrival rate, round interval and round size are averaged over */
+    private static final int HISTORY_ROUNDS = 8;
+    /** Rounds ahead the backlog is predicted */
+    private static final int HORIZON_ROUNDS = 8;
+    /** Rounds before a new rate reaches the execute queue, through the incoming queue and consensus */
+    private static final int DELAY_ROUNDS = 2;
+    /** Bisection steps searching for the rate, so to within 2^-20 of the rate range */
+    private static final int SEARCH_STEPS = 20;
+    /** The execute queue length in rounds at which health is TARGET_HEALTH */
+    private static final double TARGET_QUEUE_ROUNDS = (1 - TARGET_HEALTH) * MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY;
+    private final double minRate;
+    private final double maxRate;
+    private final int numOfNodes;
+    private final boolean countTokens;
+    /** Handling times of the last HISTORY_ROUNDS + 1 rounds, a ring indexed by round count */
+    private final long[] roundTimeNanos = new long[HISTORY_ROUNDS + 1];
+    /** Work of the last HISTORY_ROUNDS rounds, a ring indexed by round count */
+    private final long[] roundWorkNanos = new long[HISTORY_ROUNDS];
+    private long rounds = 0;
+    private double rate;
+    /** Inputs to the prediction, set before each search */
+    private double backlogNanos;
+    private double recentArrivalPerNano;
+    private double servicePerNano;
+    private double workPerRateNano;
+    private double intervalNanos;
+    private volatile double predictedHealth = Double.NaN;
+
+    /**
+     * @param minRate the lowest rate
+     * @param maxRate the highest rate
+     * @param initialRate the rate until there is enough history to predict from
+     * @param numOfNodes the number of nodes, each admitting at the chosen rate
+     * @param countTokens true if a token is one transaction, false if it is a work nanosecond
+     */
+    public MpcRateController(double minRate, double maxRate, double initialRate, int numOfNodes,
+            boolean countTokens) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = initialRate;
+        this.numOfNodes = numOfNodes;
+        this.countTokens = countTokens;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        roundTimeNanos[(int) (rounds % roundTimeNanos.length)] = health.timeNanos();
+        roundWorkNanos[(int) (rounds % roundWorkNanos.length)] = health.totalWorkNanos();
+        rounds++;
+        final ExecutionCostEstimator estimator = health.executionEstimator();
+        final double ceiling = Math.max(minRate, Math.min(maxRate, health.rateCeiling()));
+        if (rounds <= HISTORY_ROUNDS || !estimator.hasEstimate()) {
+            rate = Math.max(minRate, Math.min(ceiling, rate));
+            return rate;
+        }
+        // fit the model to the recent history, the oldest time is the one about to be overwritten
+        final long newestTimeNanos = health.timeNanos();
+        final long oldestTimeNanos = roundTimeNanos[(int) (rounds % roundTimeNanos.length)];
+        long historyWorkNanos = 0;
+        for (long work : roundWorkNanos) {
+            historyWorkNanos += work;
+        }
+        final long historyNanos = Math.max(1, newestTimeNanos - oldestTimeNanos);
+        intervalNanos = historyNanos / (double) HISTORY_ROUNDS;
+        recentArrivalPerNano = historyWorkNanos / (double) historyNanos;
+        servicePerNano = estimator.capacityWorkNanosPerSecond() / NANOS_PER_SECOND;
+        workPerRateNano = numOfNodes * (countTokens ? estimator.transactionWorkNanos() : 1) / NANOS_PER_SECOND;
+        backlogNanos = health.executeQueueWorkNanos();
+        final double meanRoundWorkNanos = historyWorkNanos / (double) HISTORY_ROUNDS;
+        final double targetBacklogNanos = TARGET_QUEUE_ROUNDS * meanRoundWorkNanos;
+        // predicted backlog only grows with rate, so bisect for the rate that hits the target
+        if (predictBacklogNanos(ceiling) <= targetBacklogNanos) {
+            rate = ceiling;
+        } else if (predictBacklogNanos(minRate) >= targetBacklogNanos) {
+            rate = minRate;
+        } else {
+            double low = minRate;
+            double high = ceiling;
+            for (int i = 0; i < SEARCH_STEPS; i++) {
+                final double mid = (low + high) / 2;
+                if (predictBacklogNanos(mid) > targetBacklogNanos) {
+                    high = mid;
+                } else {
+                    low = mid;
+                }
+            }
+            rate = low;
+        }
+        predictedHealth = meanRoundWorkNanos > 0
+                ? Math.max(0, 1 - predictBacklogNanos(rate) / meanRoundWorkNanos / MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY)
+                : 1;
+        return rate;
+    }
+
+    /**
+     * Predict the execute queue backlog HORIZON_ROUNDS ahead if every node admits at a rate from now on.
+     *
+     * @param candidateRate the rate in tokens per second
+     * @return the predicted backlog in work nanoseconds
+     */
+    private double predictBacklogNanos(double candidateRate) {
+        double backlog = backlogNanos;
+        for (int round = 0; round < HORIZON_ROUNDS; round++) {
+            final double arrivalPerNano = round < DELAY_ROUNDS
+                    ? recentArrivalPerNano : candidateRate * workPerRateNano;
+            backlog = Math.max(0, backlog + (arrivalPerNano - servicePerNano) * intervalNanos);
+        }
+        return backlog;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry, String prefix) {
+        registry.gauge(prefix + "mpc.predictedHealth", () -> predictedHealth);
+    }
+
+    @Override
+    public String toString() {
+        return "[mpc rate=%.2f, predicted health=%.2f]".formatted(rate, predictedHealth);
+    }
+}
@@ -0,0 +1,66 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.impl.AdaptivePIDRateController;
+import com.hashgraph.dynamicthrottles.impl.ElasticTokenBucket;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.time.Clock;
+
+/**
+ * The self tuning {@link AdaptivePIDRateController} steering quorum health to TARGET_HEALTH, feeding an
+ * {@link ElasticTokenBucket}. The PID works in configured tokens per second, transactions per second for the COUNT cost
+ * model, between the config's min and max refill rates, so its gains mean the same in every cost model. Its output is
+ * scaled to admission tokens and capped by the feed forward ceiling.
+ */
+public class PidRateController implements ThrottleController {
+    /** The PID, public for its gains */
+    public final AdaptivePIDRateController pid;
+    private final long scale;
+    private double rate;
+
+    /**
+     * @param minRate the lowest rate in configured tokens per second
+     * @param maxRate the highest rate in configured tokens per second
+     * @param initialRate the starting rate in configured tokens per second
+     * @param scale the admission tokens per configured token of PID output
+     * @param clock the clock for the time between PID updates
+     */
+    public PidRateController(double minRate, double maxRate, double initialRate, long scale, Clock clock) {
+        this.pid = new AdaptivePIDRateController(minRate, maxRate, initialRate, clock);
+        this.scale = scale;
+        this.rate = pid.getCurrentRate() * scale;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        final double pidRate = pid.update(TARGET_HEALTH, health.quorumHealth());
+        if (!Double.isFinite(pidRate)) {
+            throw new IllegalStateException("PID produced a non-finite rate: " + pid);
+        }
+        rate = Math.min(health.rateCeiling(), pidRate * scale);
+        return rate;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry, String prefix) {
+        registry.gauge(prefix + "pid.rate", pid::getCurrentRate);
+        registry.gauge(prefix + "pid.kp", pid::getKp);
+        registry.gauge(prefix + "pid.ki", pid::getKi);
+        registry.gauge(prefix + "pid.kd", pid::getKd);
+    }
+
+    @Override
+    public Admission createAdmission(SimulationConfig config, long scale, Clock clock) {
+        return new ElasticTokenBucket(config.tokenBucketCapacity() * scale, rate, clock);
+    }
+
+    @Override
+    public String toString() {
+        return pid.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+import static com.hashgraph.dynamicthrottles.Node.MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY;
+
+import com.hashgraph.dynamicthrottles.estimate.ExecutionCostEstimator;
+
+/**
+ * A concurrency limit style controller on measured execute queue latency rather than quorum health. As TCP Vegas and
+ * gradient concurrency limiters compare measured round trip time with a no queueing baseline, this compares how long
+ * rounds wait in this node's execute queue, from reaching consensus to starting execution, with a target wait. The
+ * target is half the queue TARGET_HEALTH allows, (1 - TARGET_HEALTH) of MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY rounds,
+ * in time using the estimated round execution time. Half, as a change of intake only reaches the execute queue after
+ * the incoming queue and consensus delays, so steering to the full allowance overshoots it.
+ * <p>
+ * Below half the target wait the rate grows by a fixed step each round, additive increase. Above the target it is cut
+ * by the gradient of target over measured wait, clamped to [0.5, 0.9], multiplicative decrease sized by how far over
+ * target the queue is. In between the rate holds, the Vegas band. After a cut the wait keeps growing for a while, as
+ * the cut takes time to reach the queue, so the rate is only cut again if the wait grows by another target wait
+ * rather than once per round while the first cut works through.
+ */
+public class QueueLatencyRateController implements ThrottleController {
+    /** The target execute queue length in rounds, half that at which quorum health is TARGET_HEALTH */
+    private static final double TARGET_QUEUE_ROUNDS = (1 - TARGET_HEALTH) * MAX_EVENTS_QUEUE_SIZE_FOR_UNHEALTHY / 2;
+    /** Lowest target wait, so waits from small rounds arriving together do not read as congestion */
+    private static final long MIN_TARGET_WAIT_NANOS = 20_000_000;
+    /** Additive increase per round below half the target wait as a fraction of the max rate */
+    private static final double INCREASE_FRACTION = 0.02;
+    /** Lowest gradient, the most one cut can take off the rate */
+    private static final double MIN_GRADIENT = 0.5;
+    /** Highest gradient, the least one cut takes off the rate */
+    private static final double MAX_GRADIENT = 0.9;
+    private final double minRate;
+    private final double maxRate;
+    private double rate;
+    private double targetWaitNanos = MIN_TARGET_WAIT_NANOS;
+    /** The wait when the rate was last cut, 0 once the wait is back under target */
+    private long waitAtCutNanos = 0;
+
+    /**
+     * @param minRate the lowest rate
+     * @param maxRate the highest rate
+     * @param initialRate the starting rate
+     */
+    public QueueLatencyRateController(double minRate, double maxRate, double initialRate) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = initialRate;
+    }
+
+    @Override
+    public double update(RoundHealth health) {
+        final ExecutionCostEstimator estimator = health.executionEstimator();
+        if (estimator.hasEstimate()) {
+            targetWaitNanos = Math.max(MIN_TARGET_WAIT_NANOS, TARGET_QUEUE_ROUNDS * estimator.roundNanos());
+        }
+        final long waitNanos = health.executeQueueWaitNanos();
+        if (waitNanos > targetWaitNanos) {
+            // cut again only if the wait has grown by another target wait since the last cut, else give it time to work
+            if (waitAtCutNanos == 0 || waitNanos > waitAtCutNanos + targetWaitNanos) {
+                rate *= Math.max(MIN_GRADIENT, Math.min(MAX_GRADIENT, targetWaitNanos / waitNanos));
+                waitAtCutNanos = waitNanos;
+            }
+        } else {
+            waitAtCutNanos = 0;
+            if (waitNanos < targetWaitNanos / 2) {
+                rate += INCREASE_FRACTION * maxRate;
+            }
+        }
+        rate = Math.max(minRate, Math.min(Math.min(maxRate, health.rateCeiling()), rate));
+        return rate;
+    }
+
+    @Override
+    public double rate() {
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "[queue latency rate=%.2f, target wait=%.1fms]".formatted(rate, targetWaitNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,103 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+import com.hashgraph.dynamicthrottles.estimate.ExecutionCostEstimator;
+import com.hashgraph.dynamicthrottles.model.Round;
+
+/**
+ * The per round health summary a {@link ThrottleController} chooses the intake rate from. One instance per node is
+ * refilled for each round, so the round handling path does not allocate, controllers must not keep a reference to it
+ * past update().
+ */
+public final class RoundHealth {
+    private long roundNum;
+    private double quorumHealth;
+    private double roundQuorumHealth;
+    private int transactionCount;
+    private long totalWorkNanos;
+    private long timeNanos;
+    private double rateCeiling = Double.POSITIVE_INFINITY;
+    private long executeQueueWaitNanos;
+    private long executeQueueWorkNanos;
+    private ExecutionCostEstimator executionEstimator;
+
+    /**
+     * Refill for a new round.
+     *
+     * @param round the round that reached consensus
+     * @param quorumHealth the quorum health averaged over recent rounds, 0.0 to 1.0
+     * @param timeNanos the time the round was handled
+     * @param rateCeiling the feed forward cap on the rate from estimated capacity, infinite for none
+     * @param executeQueueWaitNanos how long rounds are waiting in the node's execute queue
+     * @param executeQueueWorkNanos the total work of the rounds waiting in the node's execute queue
+     * @param executionEstimator the node's measured execution cost and capacity
+     * @return this
+     */
+    public RoundHealth set(Round round, double quorumHealth, long timeNanos, double rateCeiling,
+            long executeQueueWaitNanos, long executeQueueWorkNanos, ExecutionCostEstimator executionEstimator) {
+        this.roundNum = round.roundNum();
+        this.quorumHealth = quorumHealth;
+        this.roundQuorumHealth = round.summary().quorumHealth();
+        this.transactionCount = round.summary().transactionCount();
+        this.totalWorkNanos = round.getTotalWorkInNanos();
+        this.timeNanos = timeNanos;
+        this.rateCeiling = rateCeiling;
+        this.executeQueueWaitNanos = executeQueueWaitNanos;
+        this.executeQueueWorkNanos = executeQueueWorkNanos;
+        this.executionEstimator = executionEstimator;
+        return this;
+    }
+
+    /** The round number */
+    public long roundNum() {
+        return roundNum;
+    }
+
+    /** The quorum health averaged over recent rounds, 0.0 to 1.0, the signal the original throttle follows */
+    public double quorumHealth() {
+        return quorumHealth;
+    }
+
+    /** The quorum health of this round alone, 0.0 to 1.0 */
+    public double roundQuorumHealth() {
+        return roundQuorumHealth;
+    }
+
+    /** The number of transactions in the round */
+    public int transactionCount() {
+        return transactionCount;
+    }
+
+    /** The total work of the round's transactions in nanoseconds */
+    public long totalWorkNanos() {
+        return totalWorkNanos;
+    }
+
+    /** The time the round was handled on the simulation clock */
+    public long timeNanos() {
+        return timeNanos;
+    }
+
+    /** The feed forward cap on the rate from estimated capacity, infinite for none */
+    public double rateCeiling() {
+        return rateCeiling;
+    }
+
+    /**
+     * How long rounds are waiting in the node's execute queue, from reaching consensus to starting execution. The
+     * larger of the wait of the last round to start and how long the oldest round still queued has waited so far, so a
+     * growing backlog shows before its rounds start.
+     */
+    public long executeQueueWaitNanos() {
+        return executeQueueWaitNanos;
+    }
+
+    /** The total declared work of the rounds waiting in the node's execute queue, not counting the one executing */
+    public long executeQueueWorkNanos() {
+        return executeQueueWorkNanos;
+    }
+
+    /** The node's measured execution cost and capacity */
+    public ExecutionCostEstimator executionEstimator() {
+        return executionEstimator;
+    }
+}
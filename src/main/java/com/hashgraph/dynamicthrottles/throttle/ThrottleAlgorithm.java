@@ -0,0 +1,30 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+/**
+ * The available {@link ThrottleController} implementations.
+ */
+public enum ThrottleAlgorithm {
+    /** {@link EmaRateController}, rate linear in quorum health, EMA smoothed, the original throttle */
+    EMA_BUCKET,
+    /**
+     * {@link PidRateController}, the {@link com.hashgraph.dynamicthrottles.impl.AdaptivePIDRateController} self tuning
+     * PID on quorum health with an {@link com.hashgraph.dynamicthrottles.impl.ElasticTokenBucket}
+     */
+    PID_ELASTIC,
+    /** {@link AimdRateController}, additive increase while healthy, multiplicative decrease when not */
+    AIMD,
+    /** {@link GradientRateController}, TCP Vegas style, rate scaled by the gradient of health to target */
+    GRADIENT,
+    /**
+     * {@link QueueLatencyRateController}, additive increase, gradient sized multiplicative decrease, on measured execute
+     * queue wait
+     */
+    QUEUE_LATENCY,
+    /**
+     * {@link MpcRateController}, model predictive, the rate that keeps the execute queue backlog predicted from recent
+     * rounds and the cost estimate at TARGET_HEALTH
+     */
+    MPC,
+    /** {@link FixedRateController}, the initial refill rate whatever the health, a baseline */
+    FIXED
+}
@@ -0,0 +1,91 @@
+package com.hashgraph.dynamicthrottles.throttle;
+
+import com.hashgraph.dynamicthrottles.SimulationConfig;
+import com.hashgraph.dynamicthrottles.impl.AdaptiveTokenBucket;
+import com.hashgraph.dynamicthrottles.impl.LockFreeTokenBucket;
+import com.hashgraph.dynamicthrottles.metrics.MetricsRegistry;
+import com.hashgraph.dynamicthrottles.time.Clock;
+
+/**
+ * The control half of a throttle, chooses each node's intake rate once per round from the round's health. The rate is
+ * applied to an {@link Admission} which admits transactions at that rate. Rates are in admission tokens per second,
+ * transactions or work nanoseconds depending on the intake cost model, and implementations keep them between the
+ * config's min and max refill rates scaled to those units.
+ * <p>
+ * update() is only called from one thread at a time, the round handling thread.
+ */
+public interface ThrottleController {
+    /** The quorum health controllers that aim for a health target steer towards */
+    double TARGET_HEALTH = 0.8;
+
+    /**
+     * Choose the intake rate after a round.
+     *
+     * @param health the round's health summary, only valid during the call
+     * @return the new intake rate in tokens per second
+     */
+    double update(RoundHealth health);
+
+    /**
+     * Get the current intake rate.
+     *
+     * @return the rate in tokens per second
+     */
+    double rate();
+
+    /**
+     * Add any internal state worth watching to a registry.
+     *
+     * @param registry the registry to add to
+     * @param prefix the name prefix, ending in "."
+     */
+    default void registerMetrics(MetricsRegistry registry, String prefix) {}
+
+    /**
+     * Create the admission this controller's rate is applied to, by default the token bucket implementation chosen by
+     * the config's tokenBucketType.
+     *
+     * @param config the simulation settings
+     * @param scale the admission tokens per configured token, 1 or work nanoseconds per transaction
+     * @param clock the clock for refill time
+     * @return the new admission
+     */
+    default Admission createAdmission(SimulationConfig config, long scale, Clock clock) {
+        return switch (config.tokenBucketType()) {
+            case SYNCHRONIZED -> new AdaptiveTokenBucket(
+                    config.tokenBucketCapacity() * scale,
+                    config.initialRefillRate() * scale,
+                    clock
+            );
+            case LOCK_FREE -> new LockFreeTokenBucket(
+                    config.tokenBucketCapacity() * scale,
+                    config.initialRefillRate() * scale,
+                    clock
+            );
+        };
+    }
+
+    /**
+     * Create the controller selected by a simulation config.
+     *
+     * @param config the simulation settings
+     * @param scale the admission tokens per configured token, 1 or work nanoseconds per transaction
+     * @param clock the clock for controllers that need time between updates
+     * @return the new controller
+     */
+    static ThrottleController create(SimulationConfig config, long scale, Clock clock) {
+        final double minRate = config.minRefillRate() * scale;
+        final double maxRate = config.maxRefillRate() * scale;
+        final double initialRate = config.initialRefillRate() * scale;
+        return switch (config.throttleAlgorithm()) {
+            case EMA_BUCKET -> new EmaRateController(minRate, maxRate, initialRate, config.emaSmoothingFactor());
+            case PID_ELASTIC -> new PidRateController(config.minRefillRate(), config.maxRefillRate(),
+                    config.initialRefillRate(), scale, clock);
+            case AIMD -> new AimdRateController(minRate, maxRate, initialRate);
+            case GRADIENT -> new GradientRateController(minRate, maxRate, initialRate);
+            case QUEUE_LATENCY -> new QueueLatencyRateController(minRate, maxRate, initialRate);
+            case MPC -> new MpcRateController(minRate, maxRate, initialRate, config.numOfNodes(), scale == 1);
+            case FIXED -> new FixedRateController(initialRate);
+        };
+    }
+}
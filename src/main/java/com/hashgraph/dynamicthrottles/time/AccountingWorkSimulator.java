@@ -0,0 +1,31 @@
+package com.hashgraph.dynamicthrottles.time;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates work by only accounting for it, the call returns straight away and the work is added to a total. No clock
+ * is advanced, in real time this shows the throughput of the simulator itself with execution taking no time. To have
+ * work advance a clock run in virtual time, where execution always advances the virtual clock by the work and the work
+ * simulator is not used.
+ */
+public final class AccountingWorkSimulator implements WorkSimulator {
+    public static final AccountingWorkSimulator INSTANCE = new AccountingWorkSimulator();
+
+    private final LongAdder accountedWorkNanos = new LongAdder();
+
+    private AccountingWorkSimulator() {}
+
+    @Override
+    public void simulateWork(long workNanos) {
+        accountedWorkNanos.add(workNanos);
+    }
+
+    /**
+     * Get the total work accounted for by all callers.
+     *
+     * @return the total work in nanoseconds
+     */
+    public long accountedWorkNanos() {
+        return accountedWorkNanos.sum();
+    }
+}
@@ -0,0 +1,36 @@
+package com.hashgraph.dynamicthrottles.time;
+
+/**
+ * Source of time for the simulator. All simulation code reads time through a clock rather than calling
+ * {@link System#nanoTime()} or {@link System#currentTimeMillis()} directly, so the same code can run against the wall
+ * clock or against the virtual clock of a {@link com.hashgraph.dynamicthrottles.simulated.DiscreteEventSimulator}.
+ */
+public interface Clock {
+    /** Clock backed by the real system time */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Monotonic time in nanoseconds, only meaningful for measuring elapsed time like {@link System#nanoTime()}.
+     *
+     * @return the current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Wall clock time in milliseconds, used for timestamps. For virtual clocks this is milliseconds since the start of
+     * the simulation.
+     *
+     * @return the current time in milliseconds
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,84 @@
+package com.hashgraph.dynamicthrottles.time;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates work by parking for all but the last part of the work time, then busy spinning to the deadline. The spin
+ * part is calibrated at first use to the 99th percentile amount parks over-run by, so the park almost never runs past
+ * the deadline. Nearly as accurate as spinning while only using a core for the short spin at the end.
+ */
+public final class HybridWorkSimulator implements WorkSimulator {
+    /** Number of parks timed to calibrate */
+    private static final int CALIBRATION_PARKS = 500;
+    /** Length of each calibration park */
+    private static final long CALIBRATION_PARK_NANOS = 20_000;
+    /** Bounds on the calibrated spin time */
+    private static final long MIN_SPIN_NANOS = 5_000;
+    private static final long MAX_SPIN_NANOS = 2_000_000;
+    private static volatile HybridWorkSimulator calibrated;
+
+    /** Time spun at the end of the work rather than parked, in nanoseconds */
+    private final long spinNanos;
+
+    /**
+     * Create a hybrid work simulator.
+     *
+     * @param spinNanos the time to spin at the end of the work rather than park, in nanoseconds
+     */
+    public HybridWorkSimulator(long spinNanos) {
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("spinNanos must be non-negative");
+        }
+        this.spinNanos = spinNanos;
+    }
+
+    /**
+     * Get the shared hybrid work simulator, calibrating it on first call.
+     *
+     * @return the calibrated hybrid work simulator
+     */
+    public static HybridWorkSimulator calibrated() {
+        HybridWorkSimulator simulator = calibrated;
+        if (simulator == null) {
+            synchronized (HybridWorkSimulator.class) {
+                simulator = calibrated;
+                if (simulator == null) {
+                    simulator = new HybridWorkSimulator(measureParkOverrunNanos());
+                    calibrated = simulator;
+                }
+            }
+        }
+        return simulator;
+    }
+
+    public long spinNanos() {
+        return spinNanos;
+    }
+
+    @Override
+    public void simulateWork(long workNanos) {
+        final long deadline = System.nanoTime() + workNanos;
+        final long parkNanos = workNanos - spinNanos;
+        if (parkNanos > 0) {
+            LockSupport.parkNanos(parkNanos);
+        }
+        SpinWorkSimulator.spinUntil(deadline);
+    }
+
+    /**
+     * Measure the 99th percentile time parks run past their requested time, bounded to MIN_SPIN_NANOS and
+     * MAX_SPIN_NANOS.
+     */
+    private static long measureParkOverrunNanos() {
+        final long[] overruns = new long[CALIBRATION_PARKS];
+        for (int i = 0; i < CALIBRATION_PARKS; i++) {
+            final long start = System.nanoTime();
+            LockSupport.parkNanos(CALIBRATION_PARK_NANOS);
+            overruns[i] = System.nanoTime() - start - CALIBRATION_PARK_NANOS;
+        }
+        Arrays.sort(overruns);
+        final long p99 = overruns[(CALIBRATION_PARKS * 99) / 100];
+        return Math.max(MIN_SPIN_NANOS, Math.min(MAX_SPIN_NANOS, p99));
+    }
+}
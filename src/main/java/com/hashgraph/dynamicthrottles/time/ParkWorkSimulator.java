@@ -0,0 +1,19 @@
+package com.hashgraph.dynamicthrottles.time;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates work with LockSupport.parkNanos(), the simulator's original approach. Costs no CPU, but parks run over by
+ * the OS timer resolution and timer slack, tens of microseconds on Linux, which is a large error on transactions of
+ * 66 microseconds to 1 millisecond.
+ */
+public final class ParkWorkSimulator implements WorkSimulator {
+    public static final ParkWorkSimulator INSTANCE = new ParkWorkSimulator();
+
+    private ParkWorkSimulator() {}
+
+    @Override
+    public void simulateWork(long workNanos) {
+        LockSupport.parkNanos(workNanos);
+    }
+}
@@ -0,0 +1,104 @@
+package com.hashgraph.dynamicthrottles.time;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scheduler that runs tasks against the system clock, on a pool of real daemon threads or on virtual threads.
+ * <p>
+ * With virtual threads each fixed rate task gets its own virtual thread that parks until each deadline, and each one
+ * off task a virtual thread that parks until it is due. As with a scheduled thread pool, runs of a fixed rate task
+ * never overlap, and after a late run the following runs start straight away until the task is back on schedule.
+ */
+public class RealTimeScheduler implements Scheduler {
+    private final ThreadModel threadModel;
+    /** The scheduled thread pool, null for virtual threads */
+    private final ScheduledExecutorService executorService;
+
+    /**
+     * Create a new real time scheduler on platform threads.
+     *
+     * @param threads the number of threads to run scheduled tasks on
+     */
+    public RealTimeScheduler(int threads) {
+        this(threads, ThreadModel.PLATFORM);
+    }
+
+    /**
+     * Create a new real time scheduler.
+     *
+     * @param threads the number of threads to run scheduled tasks on, unused for virtual threads
+     * @param threadModel platform or virtual threads
+     */
+    public RealTimeScheduler(int threads, ThreadModel threadModel) {
+        this.threadModel = threadModel;
+        this.executorService = threadModel == ThreadModel.PLATFORM
+                ? Executors.newScheduledThreadPool(threads, r -> {
+                    Thread thread = new Thread(r);
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    public ThreadModel threadModel() {
+        return threadModel;
+    }
+
+    @Override
+    public Clock clock() {
+        return Clock.SYSTEM;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayNanos) {
+        if (executorService != null) {
+            executorService.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } else {
+            final long deadline = System.nanoTime() + delayNanos;
+            Thread.ofVirtual().start(() -> {
+                parkUntil(deadline);
+                task.run();
+            });
+        }
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable task, long initialDelayNanos, long periodNanos) {
+        if (executorService != null) {
+            executorService.scheduleAtFixedRate(task, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS);
+        } else {
+            final long start = System.nanoTime() + initialDelayNanos;
+            Thread.ofVirtual().start(() -> {
+                long deadline = start;
+                while (true) {
+                    parkUntil(deadline);
+                    task.run();
+                    deadline += periodNanos;
+                }
+            });
+        }
+    }
+
+    @Override
+    public Thread.Builder threadBuilder() {
+        return threadModel == ThreadModel.VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+    }
+
+    /**
+     * Park the current thread until the system clock reaches a deadline.
+     */
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
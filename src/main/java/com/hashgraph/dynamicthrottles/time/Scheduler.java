@@ -0,0 +1,49 @@
+package com.hashgraph.dynamicthrottles.time;
+
+/**
+ * Schedules the timed work of the simulation, event creation, load generation and execution, either on real threads
+ * against the wall clock or as timed events on a virtual clock.
+ */
+public interface Scheduler {
+    /**
+     * Get the clock that all tasks run by this scheduler should read time from.
+     *
+     * @return the scheduler's clock
+     */
+    Clock clock();
+
+    /**
+     * Is this scheduler running against real wall clock time? When true, work like transaction execution must really
+     * take time, when false it is modelled by scheduling a completion task in the future.
+     *
+     * @return true if real time, false if virtual time
+     */
+    boolean isRealTime();
+
+    /**
+     * Run a task once after a delay.
+     *
+     * @param task the task to run
+     * @param delayNanos the delay in nanoseconds
+     */
+    void schedule(Runnable task, long delayNanos);
+
+    /**
+     * Run a task repeatedly at a fixed rate.
+     *
+     * @param task the task to run
+     * @param initialDelayNanos the delay before the first run in nanoseconds
+     * @param periodNanos the period between runs in nanoseconds
+     */
+    void scheduleAtFixedRate(Runnable task, long initialDelayNanos, long periodNanos);
+
+    /**
+     * Get a builder for the long running threads of a real time simulation, node execution loops, worker pools,
+     * consensus stages and load generation, so they use the same thread model as the scheduler. Threads are daemons.
+     *
+     * @return a new thread builder
+     */
+    default Thread.Builder threadBuilder() {
+        return Thread.ofPlatform().daemon(true);
+    }
+}
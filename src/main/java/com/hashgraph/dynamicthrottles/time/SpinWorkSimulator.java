@@ -0,0 +1,82 @@
+package com.hashgraph.dynamicthrottles.time;
+
+/**
+ * Simulates work by busy spinning on System.nanoTime() until the work time has passed. Calibrated at first use by
+ * measuring the fixed cost of a call with no work, which is taken off each spin so short work is not inflated by the
+ * call itself. Accurate to around the cost of reading the clock, but keeps a core busy for the whole work time.
+ */
+public final class SpinWorkSimulator implements WorkSimulator {
+    /** Number of zero length calls timed to calibrate */
+    private static final int CALIBRATION_CALLS = 20_000;
+    private static volatile SpinWorkSimulator calibrated;
+
+    /** Fixed cost of a call that is taken off each spin, in nanoseconds */
+    private final long overheadNanos;
+
+    /**
+     * Create a spin work simulator.
+     *
+     * @param overheadNanos the fixed cost of a call to take off each spin, in nanoseconds
+     */
+    public SpinWorkSimulator(long overheadNanos) {
+        if (overheadNanos < 0) {
+            throw new IllegalArgumentException("overheadNanos must be non-negative");
+        }
+        this.overheadNanos = overheadNanos;
+    }
+
+    /**
+     * Get the shared spin work simulator, calibrating it on first call.
+     *
+     * @return the calibrated spin work simulator
+     */
+    public static SpinWorkSimulator calibrated() {
+        SpinWorkSimulator simulator = calibrated;
+        if (simulator == null) {
+            synchronized (SpinWorkSimulator.class) {
+                simulator = calibrated;
+                if (simulator == null) {
+                    simulator = new SpinWorkSimulator(measureOverheadNanos());
+                    calibrated = simulator;
+                }
+            }
+        }
+        return simulator;
+    }
+
+    public long overheadNanos() {
+        return overheadNanos;
+    }
+
+    @Override
+    public void simulateWork(long workNanos) {
+        spinUntil(System.nanoTime() + workNanos - overheadNanos);
+    }
+
+    /**
+     * Busy spin until the system clock reaches a deadline.
+     *
+     * @param deadlineNanos the deadline from System.nanoTime()
+     */
+    static void spinUntil(long deadlineNanos) {
+        while (System.nanoTime() - deadlineNanos < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Measure the mean time of a zero length spin, the clock reads and call that every spin pays for.
+     */
+    private static long measureOverheadNanos() {
+        final SpinWorkSimulator uncalibrated = new SpinWorkSimulator(0);
+        // warm up so the measured calls are compiled
+        for (int i = 0; i < CALIBRATION_CALLS; i++) {
+            uncalibrated.simulateWork(0);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < CALIBRATION_CALLS; i++) {
+            uncalibrated.simulateWork(0);
+        }
+        return (System.nanoTime() - start) / CALIBRATION_CALLS;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hashgraph.dynamicthrottles.time;
+
+/**
+ * The kind of threads a real time simulation runs on.
+ */
+public enum ThreadModel {
+    /** Platform threads, a scheduled thread pool for timed tasks and a dedicated thread per long running loop */
+    PLATFORM,
+    /**
+     * Virtual threads, every timed task and long running loop gets its own virtual thread, so hundreds of nodes can be
+     * hosted on a handful of carrier threads
+     */
+    VIRTUAL
+}
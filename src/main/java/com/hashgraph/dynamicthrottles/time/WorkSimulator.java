@@ -0,0 +1,17 @@
+package com.hashgraph.dynamicthrottles.time;
+
+/**
+ * Simulates a transaction's work by taking up time on the calling thread, or by only accounting for it. Used when
+ * executing rounds in real time, in virtual time work is always accounted for by scheduling the completion of a round
+ * on the virtual clock.
+ * <p>
+ * Implementations are thread-safe, one instance can be shared by all execution threads.
+ */
+public interface WorkSimulator {
+    /**
+     * Simulate doing work on the calling thread.
+     *
+     * @param workNanos the amount of work in nanoseconds
+     */
+    void simulateWork(long workNanos);
+}
@@ -0,0 +1,81 @@
+package com.hashgraph.dynamicthrottles.time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how accurately each {@link WorkSimulatorType} takes the requested time on this machine, by timing a sample
+ * of work lengths drawn uniformly from the simulated transaction work range.
+ */
+public final class WorkSimulatorCalibration {
+    /**
+     * Timing error of one work simulator, error is measured time minus requested time.
+     *
+     * @param type the work simulator type
+     * @param samples the number of timed calls
+     * @param meanErrorNanos the mean error in nanoseconds, positive means work takes longer than requested
+     * @param p99ErrorNanos the 99th percentile error in nanoseconds
+     * @param maxErrorNanos the largest error in nanoseconds
+     * @param meanRelativeError the mean error as a fraction of the requested time
+     */
+    public record Result(WorkSimulatorType type, int samples, double meanErrorNanos, long p99ErrorNanos,
+                         long maxErrorNanos, double meanRelativeError) {
+        @Override
+        public String toString() {
+            return "%-10s mean error %8.1fus (%+6.1f%%), p99 %8.1fus, max %8.1fus".formatted(type,
+                    meanErrorNanos / 1000d, meanRelativeError * 100, p99ErrorNanos / 1000d, maxErrorNanos / 1000d);
+        }
+    }
+
+    private WorkSimulatorCalibration() {}
+
+    /**
+     * Calibrate and measure every work simulator type.
+     *
+     * @param samples the number of timed calls per type
+     * @param minWorkNanos the shortest work to time
+     * @param maxWorkNanos the longest work to time
+     * @return the result for each type, in declaration order
+     */
+    public static List<Result> measureAll(int samples, long minWorkNanos, long maxWorkNanos) {
+        final List<Result> results = new ArrayList<>();
+        for (WorkSimulatorType type : WorkSimulatorType.values()) {
+            results.add(measure(type, samples, minWorkNanos, maxWorkNanos));
+        }
+        return results;
+    }
+
+    /**
+     * Measure one work simulator type, calibrating it first if needed.
+     *
+     * @param type the work simulator type
+     * @param samples the number of timed calls
+     * @param minWorkNanos the shortest work to time
+     * @param maxWorkNanos the longest work to time
+     * @return the timing error
+     */
+    public static Result measure(WorkSimulatorType type, int samples, long minWorkNanos, long maxWorkNanos) {
+        if (samples <= 0 || minWorkNanos <= 0 || maxWorkNanos < minWorkNanos) {
+            throw new IllegalArgumentException("samples must be positive and 0 < minWorkNanos <= maxWorkNanos");
+        }
+        final WorkSimulator workSimulator = type.workSimulator();
+        // same work lengths for every type
+        final Random random = new Random(samples);
+        final long[] errors = new long[samples];
+        double totalError = 0;
+        double totalRelativeError = 0;
+        for (int i = 0; i < samples; i++) {
+            final long work = random.nextLong(minWorkNanos, maxWorkNanos + 1);
+            final long start = System.nanoTime();
+            workSimulator.simulateWork(work);
+            errors[i] = System.nanoTime() - start - work;
+            totalError += errors[i];
+            totalRelativeError += errors[i] / (double) work;
+        }
+        Arrays.sort(errors);
+        return new Result(type, samples, totalError / samples, errors[Math.max(0, (samples * 99) / 100 - 1)],
+                errors[samples - 1], totalRelativeError / samples);
+    }
+}
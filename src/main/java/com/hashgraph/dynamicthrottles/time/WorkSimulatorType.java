@@ -0,0 +1,42 @@
+package com.hashgraph.dynamicthrottles.time;
+
+/**
+ * The available {@link WorkSimulator} implementations.
+ */
+public enum WorkSimulatorType {
+    /** {@link ParkWorkSimulator}, parks for the work time, over-runs by the OS timer resolution and slack */
+    PARK,
+    /** {@link SpinWorkSimulator}, busy spins for the work time, accurate but uses a core for the whole time */
+    SPIN,
+    /** {@link HybridWorkSimulator}, parks for most of the work time then spins for the rest */
+    HYBRID,
+    /**
+     * {@link AccountingWorkSimulator}, takes no time and only adds the work to a total, no clock is advanced. Virtual
+     * time runs always account for work by advancing the virtual clock, whatever the work simulator
+     */
+    ACCOUNTING;
+
+    /**
+     * Does this work simulator hold its thread busy for the work time. Busy threads pin a virtual thread's carrier, so
+     * these can not be used with {@link ThreadModel#VIRTUAL}.
+     *
+     * @return true for SPIN and HYBRID
+     */
+    public boolean busyWaits() {
+        return this == SPIN || this == HYBRID;
+    }
+
+    /**
+     * Get the work simulator for this type, calibrating it on first use where needed.
+     *
+     * @return the shared work simulator
+     */
+    public WorkSimulator workSimulator() {
+        return switch (this) {
+            case PARK -> ParkWorkSimulator.INSTANCE;
+            case SPIN -> SpinWorkSimulator.calibrated();
+            case HYBRID -> HybridWorkSimulator.calibrated();
+            case ACCOUNTING -> AccountingWorkSimulator.INSTANCE;
+        };
+    }
+}
@@ -1,13 +1,14 @@
 package com.hashgraph.dynamicthrottles.ui;
 
-import static com.hashgraph.dynamicthrottles.DynamicMain.NUM_OF_NODES;
-import static com.hashgraph.dynamicthrottles.DynamicMain.consensus;
-import static com.hashgraph.dynamicthrottles.DynamicMain.loadGenerator;
-import static com.hashgraph.dynamicthrottles.DynamicMain.nodes;
+import static com.hashgraph.dynamicthrottles.DynamicMain.simulation;
 import static com.hashgraph.dynamicthrottles.Node.NANOS_PER_SECOND;
 
 import com.hashgraph.dynamicthrottles.DynamicMain;
+import com.hashgraph.dynamicthrottles.LoadGenerator;
 import com.hashgraph.dynamicthrottles.Node;
+import com.hashgraph.dynamicthrottles.Simulation;
+import com.hashgraph.dynamicthrottles.metrics.MetricsSnapshot;
+import com.hashgraph.dynamicthrottles.metrics.TransactionLatencies;
 import eu.hansolo.tilesfx.Tile;
 import eu.hansolo.tilesfx.chart.ChartData;
 import java.io.IOException;
@@ -57,8 +58,9 @@ public class DynamicThrottlesUiApp extends Application {
         final List<ChartData> tpsChartData = createChartData(mainFrameController.loadGeneratorTpsChartTile, null, Tile.BLUE);
         final List<ChartData> consensusQueueSizeChartData = createChartData(mainFrameController.consenusQueueSizeChartTile, null, Tile.BLUE);
         final List<ChartData> transactionWorkNsInLastSecondChartData = createChartData(mainFrameController.transactionWorkNsInLastSecondChartTile, null, Tile.BLUE);
+        final List<Node> nodes = simulation.nodes;
         // create node panels
-        List<NodeUi> nodeUis = IntStream.range(1,NUM_OF_NODES+1).mapToObj(i -> {
+        List<NodeUi> nodeUis = IntStream.range(1,nodes.size()+1).mapToObj(i -> {
             try {
                 return createNodeUi(mainFrameController.nodesContainer, i);
             } catch (IOException e) {
@@ -72,51 +74,60 @@ public class DynamicThrottlesUiApp extends Application {
         loadSlider.setShowTickMarks(true);
         loadSlider.setMajorTickUnit(10);
         loadSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
-            loadGenerator.percentageLargeTransactions.set(newValue.intValue());
+            simulation.loadGenerator.percentageLargeTransactions.set(newValue.intValue());
         });
         mainFrameController.loadSliderTile.setGraphic(loadSlider);
 
         // start timer timeline to update the UI every second
         Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            final long tps = loadGenerator.getTransactionsSinceLastCall();
+            // read the latest once per second metrics snapshot, shared with the command line output
+            final MetricsSnapshot interval = simulation.metrics.lastInterval();
+            if (interval == null) {
+                return;
+            }
+            final long tps = interval.counter(LoadGenerator.TRANSACTIONS_METRIC);
             mainFrameController.loadGeneratorTpsTile.setValue(tps);
             addChartData(mainFrameController.loadGeneratorTpsChartTile, tpsChartData, tps);
-            final long[] acceptedAndRejected = loadGenerator.getAcceptedRejectedSinceLastCall();
-            double total = acceptedAndRejected[0] + acceptedAndRejected[1];
-            double acceptedPercentage = total == 0 ? 0 : ((double)acceptedAndRejected[0] / total)*100;
-            double rejectedPercentage = total == 0 ? 0 : ((double)acceptedAndRejected[1] / total)*100;
+            final long accepted = interval.counter(LoadGenerator.ACCEPTED_METRIC);
+            final long rejected = interval.counter(LoadGenerator.REJECTED_METRIC);
+            double total = accepted + rejected;
+            double acceptedPercentage = total == 0 ? 0 : ((double)accepted / total)*100;
+            double rejectedPercentage = total == 0 ? 0 : ((double)rejected / total)*100;
 
             acceptedValueChartData.setValue(acceptedPercentage);
             rejectedValueChartData.setValue(rejectedPercentage);
             addChartData(mainFrameController.loadGeneratorAcceptedChartTile, acceptedChartData, acceptedPercentage);
             addChartData(mainFrameController.loadGeneratorRejectedChartTile, rejectedChartData, rejectedPercentage);
 
-            addChartData(mainFrameController.consenusQueueSizeChartTile, consensusQueueSizeChartData, consensus.consensusQueueSize());
+            addChartData(mainFrameController.consenusQueueSizeChartTile, consensusQueueSizeChartData, simulation.consensus.consensusQueueSize());
 
-            mainFrameController.roundsLabel.setText("%,d".formatted(DynamicMain.roundsInLastSecond.get()));
-            mainFrameController.eventsLabel.setText("%,d".formatted(DynamicMain.eventsInLastSecond.getAndSet(0)));
-            mainFrameController.transactionLabel.setText("%,d".formatted(DynamicMain.transactionsInLastSecond.getAndSet(0)));
-            mainFrameController.currentRoundLabel.setText("%,d".formatted(consensus.currentRound.get()));
+            mainFrameController.roundsLabel.setText("%,d".formatted(interval.counter(Simulation.ROUNDS_METRIC)));
+            mainFrameController.eventsLabel.setText("%,d".formatted(interval.counter(Simulation.EVENTS_METRIC)));
+            mainFrameController.transactionLabel.setText("%,d".formatted(interval.counter(Simulation.TRANSACTIONS_METRIC)));
+            mainFrameController.currentRoundLabel.setText("%,d".formatted(simulation.consensus.currentRound()));
 
             mainFrameController.quorumHealthSparkLine.addValue(nodes.getFirst().globalIntakeController.quorumHealth.get());
             mainFrameController.tokenRateSparkLine.addValue(nodes.getFirst().globalIntakeController.getCurrentTokenRate());
 
-            addChartData(mainFrameController.transactionWorkNsInLastSecondChartTile, transactionWorkNsInLastSecondChartData, (double)DynamicMain.transactionWorkNsInLastSecond.getAndSet(0)/NANOS_PER_SECOND);
+            addChartData(mainFrameController.transactionWorkNsInLastSecondChartTile, transactionWorkNsInLastSecondChartData, (double)interval.counter(Simulation.TRANSACTION_WORK_NANOS_METRIC)/NANOS_PER_SECOND);
 
             // update nodes
-            for (int i = 0; i < NUM_OF_NODES; i++) {
+            for (int i = 0; i < nodes.size(); i++) {
                 Node node = nodes.get(i);
                 NodeUi nodeUi = nodeUis.get(i);
                 // update round number
                 nodeUi.currentRoundLabel.setText("%,d".formatted(node.currentRound.get()));
                 // update ingested transactions
-                nodeUi.ingestedTransactionsLabel.setText("%,d".formatted(node.ingestedTransactions.get()));
-                // update pid label
-                nodeUi.pidLabel.setText(node.globalIntakeController.pid.toString());
+                nodeUi.ingestedTransactionsLabel.setText("%,d".formatted(node.ingestedTransactions.sum()));
+                // update throttle controller label
+                nodeUi.controllerLabel.setText(node.globalIntakeController.controller.toString());
                 // update token rate
                 nodeUi.currentTokenRateLabel.setText("%.1f".formatted(node.globalIntakeController.getCurrentTokenRate()));
                 // update current tokens
                 nodeUi.currentTokensLabel.setText("%.1f".formatted(node.globalIntakeController.getCurrentTokenCount()));
+                // update end to end latency of transactions accepted by this node
+                nodeUi.latencyLabel.setText(TransactionLatencies.formatPercentilesMillis(
+                        node.transactionLatencies.endToEnd));
                 nodeUi.healthChartTile.setTitle("Health");
                 // update node queue size
                 nodeUi.incomingTransactionQueueSparkLine.addValue(node.incomingTransactionQueue.size());
@@ -13,9 +13,10 @@ public class NodeUi {
     @FXML TitledPane nodeTitledPane;
     @FXML Label currentRoundLabel;
     @FXML Label ingestedTransactionsLabel;
-    @FXML Label pidLabel;
+    @FXML Label controllerLabel;
     @FXML Label currentTokensLabel;
     @FXML Label currentTokenRateLabel;
+    @FXML Label latencyLabel;
 
     @FXML Tile incomingTransactionQueueChartTile;
     @FXML Tile roundsToExecuteQueueChartTile;